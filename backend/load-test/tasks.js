@@ -0,0 +1,74 @@
+// Load test for comparing the platform-thread and virtual-thread modes.
+//
+// 1. Start the backend in one mode:
+//      ./mvnw -Pjava21 spring-boot:run                                              (platform threads)
+//      ./mvnw -Pjava21 spring-boot:run -Dspring-boot.run.profiles=virtual-threads   (virtual threads)
+// 2. Run: k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=admin@example.com -e PASSWORD=... load-test/tasks.js
+// 3. Compare http_req_duration (p95, p99), http_reqs (throughput) and http_req_failed between the two runs.
+//
+// Reads dominate and block on JDBC, so the mix is mostly task pages with some creations and updates:
+// 70% pages, 20% scroll slices, 5% creations and 5% creations followed by an update of the new task.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 100 },
+                { duration: '1m', target: 400 },
+                { duration: '1m', target: 800 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+// One login for the whole run: the test measures task endpoints, and login is rate limited
+export function setup() {
+    const response = http.post(`${BASE_URL}/api/v1/auth/login`,
+        JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(response, { 'logged in': (r) => r.status === 200 });
+    return { token: response.json('token') };
+}
+
+export default function (data) {
+    const params = {
+        headers: { Authorization: `Bearer ${data.token}`, 'Content-Type': 'application/json' },
+    };
+    const roll = Math.random();
+
+    if (roll < 0.7) {
+        const page = Math.floor(Math.random() * 10);
+        check(http.get(`${BASE_URL}/api/v1/tasks?page=${page}&size=20`, params), { 'page 200': (r) => r.status === 200 });
+    } else if (roll < 0.9) {
+        check(http.get(`${BASE_URL}/api/v1/tasks/scroll?size=20`, params), { 'scroll 200': (r) => r.status === 200 });
+    } else {
+        const created = http.post(`${BASE_URL}/api/v1/tasks/self`, JSON.stringify({
+            title: `Load test ${__VU}-${__ITER}`,
+            description: 'Created by the load test',
+            priority: 'MEDIUM',
+            status: 'TO_DO',
+            dueDate: new Date(Date.now() + 86400000).toISOString().slice(0, 19),
+        }), params);
+        check(created, { 'create 2xx': (r) => r.status >= 200 && r.status < 300 });
+
+        // The update sends the version it read, as required by PATCH; the task is new, so it is never stale
+        if (roll >= 0.95 && created.status === 200) {
+            const task = created.json('data');
+            const updated = http.patch(`${BASE_URL}/api/v1/tasks/${task.id}`, JSON.stringify({
+                status: 'IN_PROGRESS',
+                version: task.version,
+            }), params);
+            check(updated, { 'update 200': (r) => r.status === 200 });
+        }
+    }
+}
@@ -5,7 +5,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+// The reactive build brings an R2DBC driver; its connection factory must not replace the JDBC DataSource
+@SpringBootApplication(excludeName = "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration")
 @EnableJdbcRepositories(basePackages = "com.erikssonherlo.taskmanagement")
 @EnableJpaRepositories(basePackages = "com.erikssonherlo.taskmanagement")
 //@EnableJpaAuditing
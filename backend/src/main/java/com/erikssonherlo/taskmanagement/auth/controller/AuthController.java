@@ -1,16 +1,22 @@
 package com.erikssonherlo.taskmanagement.auth.controller;
 
 import com.erikssonherlo.taskmanagement.auth.dto.LoginDTO;
+import com.erikssonherlo.taskmanagement.auth.dto.RefreshTokenDTO;
 import com.erikssonherlo.taskmanagement.auth.dto.RegisterDTO;
 import com.erikssonherlo.taskmanagement.auth.service.AuthService;
 import com.erikssonherlo.taskmanagement.common.payload.AuthResponse;
+import com.erikssonherlo.taskmanagement.common.security.AuthRateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -21,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter authRateLimiter;
 
     @PostMapping("/login")
     @Operation(
@@ -30,10 +37,12 @@ public class AuthController {
                     @ApiResponse(responseCode = "200", description = "Successful login",
                             content = @Content(schema = @Schema(implementation = AuthResponse.class))),
                     @ApiResponse(responseCode = "400", description = "Invalid input data"),
-                    @ApiResponse(responseCode = "401", description = "Invalid credentials")
+                    @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+                    @ApiResponse(responseCode = "429", description = "Too many attempts for the email or from the client")
             }
     )
-    public AuthResponse login(@RequestBody @Valid LoginDTO request) {
+    public AuthResponse login(@RequestBody @Valid LoginDTO request, HttpServletRequest httpRequest) {
+        authRateLimiter.check(request.email(), httpRequest.getRemoteAddr());
         return authService.login(request);
     }
 
@@ -44,10 +53,44 @@ public class AuthController {
             responses = {
                     @ApiResponse(responseCode = "201", description = "User registered successfully",
                             content = @Content(schema = @Schema(implementation = AuthResponse.class))),
-                    @ApiResponse(responseCode = "400", description = "User already exists or invalid input")
+                    @ApiResponse(responseCode = "400", description = "User already exists or invalid input"),
+                    @ApiResponse(responseCode = "429", description = "Too many attempts for the email or from the client")
             }
     )
-    public AuthResponse register(@RequestBody @Valid RegisterDTO request) {
+    public AuthResponse register(@RequestBody @Valid RegisterDTO request, HttpServletRequest httpRequest) {
+        authRateLimiter.check(request.email(), httpRequest.getRemoteAddr());
         return authService.register(request);
     }
+
+    @PostMapping("/refresh")
+    @Operation(
+            summary = "Refresh",
+            description = "Exchange a refresh token for a new access token and a new refresh token. Each refresh token can be used once.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Tokens refreshed",
+                            content = @Content(schema = @Schema(implementation = AuthResponse.class))),
+                    @ApiResponse(responseCode = "401", description = "Invalid, expired or already used refresh token")
+            }
+    )
+    public AuthResponse refresh(@RequestBody @Valid RefreshTokenDTO request) {
+        return authService.refresh(request);
+    }
+
+    @PostMapping("/logout")
+    @Operation(
+            summary = "Logout",
+            description = "Revoke the refresh token and, when sent in the Authorization header, the access token.",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Logged out")
+            }
+    )
+    public ResponseEntity<Void> logout(
+            @RequestBody @Valid RefreshTokenDTO request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = StringUtils.hasText(authorization) && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,7 @@
+package com.erikssonherlo.taskmanagement.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenDTO(
+        @NotBlank String refreshToken
+) {}
@@ -0,0 +1,25 @@
+package com.erikssonherlo.taskmanagement.auth.repository;
+
+import com.erikssonherlo.taskmanagement.auth.entity.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
+    Optional<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    // Conditional, so only one of two concurrent uses of the same token succeeds
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revokedAt = :now WHERE r.id = :id AND r.revokedAt IS NULL")
+    int revoke(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revokedAt = :now WHERE r.userEmail = :email AND r.revokedAt IS NULL")
+    int revokeAllByUserEmail(@Param("email") String email, @Param("now") LocalDateTime now);
+}
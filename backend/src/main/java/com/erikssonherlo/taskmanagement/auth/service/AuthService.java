@@ -2,10 +2,13 @@ package com.erikssonherlo.taskmanagement.auth.service;
 
 
 import com.erikssonherlo.taskmanagement.auth.dto.LoginDTO;
+import com.erikssonherlo.taskmanagement.auth.dto.RefreshTokenDTO;
 import com.erikssonherlo.taskmanagement.auth.dto.RegisterDTO;
 import com.erikssonherlo.taskmanagement.common.payload.AuthResponse;
 
 public interface AuthService {
     AuthResponse login(LoginDTO request);
     AuthResponse register(RegisterDTO request);
+    AuthResponse refresh(RefreshTokenDTO request);
+    void logout(RefreshTokenDTO request, String accessToken);
 }
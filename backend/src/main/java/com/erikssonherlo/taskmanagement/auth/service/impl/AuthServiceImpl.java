@@ -1,20 +1,39 @@
 package com.erikssonherlo.taskmanagement.auth.service.impl;
 
 import com.erikssonherlo.taskmanagement.auth.dto.LoginDTO;
+import com.erikssonherlo.taskmanagement.auth.dto.RefreshTokenDTO;
 import com.erikssonherlo.taskmanagement.auth.dto.RegisterDTO;
+import com.erikssonherlo.taskmanagement.auth.entity.RefreshTokenEntity;
+import com.erikssonherlo.taskmanagement.auth.repository.RefreshTokenRepository;
 import com.erikssonherlo.taskmanagement.auth.service.AuthService;
+import com.erikssonherlo.taskmanagement.common.config.CacheConfiguration;
 import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceAlreadyExistsException;
+import com.erikssonherlo.taskmanagement.common.exception.ServiceUnavailableException;
+import com.erikssonherlo.taskmanagement.common.exception.UnauthorizedException;
 import com.erikssonherlo.taskmanagement.common.payload.AuthResponse;
 import com.erikssonherlo.taskmanagement.common.security.JWTService;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import com.erikssonherlo.taskmanagement.user.model.Role;
 import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
 
 @Service
 @RequiredArgsConstructor
@@ -24,13 +43,18 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JWTService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${security.jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    private static final String INVALID_REFRESH_TOKEN = "Invalid or expired refresh token.";
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     @Override
+    @CacheEvict(cacheNames = CacheConfiguration.USERS_BY_EMAIL, key = "#request.email()")
     public AuthResponse register(RegisterDTO request) {
-        if (userRepository.existsByEmail(request.email())) {
-            throw new ResourceAlreadyExistsException("User", "email", request.email());
-        }
-
+        // Hashed before the transaction starts, so no connection is held while waiting for the password encoder
         UserEntity newUser = UserEntity.builder()
                 .email(request.email())
                 .firstName(request.firstName())
@@ -39,25 +63,110 @@ public class AuthServiceImpl implements AuthService {
                 .role(Role.MEMBER) // Default role for new users, open to all users.
                 .build();
 
-        userRepository.save(newUser);
+        String refreshToken = transactionTemplate.execute(status -> {
+            // One INSERT ... ON CONFLICT instead of checking the email first; it also assigns the id the token carries
+            if (userRepository.insertIfAbsent(newUser) == 0) {
+                throw new ResourceAlreadyExistsException("User", "email", request.email());
+            }
+            return issueRefreshToken(newUser.getEmail());
+        });
+
         String token = jwtService.generateToken(newUser);
-        return new AuthResponse(token);
+        return new AuthResponse(token, refreshToken);
     }
 
     @Override
     public AuthResponse login(LoginDTO request) {
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.email(), request.password())
             );
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
+            // The provider wraps failures while loading the user, which may include a saturated password encoder
+            if (e.getCause() instanceof ServiceUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw new BadRequestException("Invalid email or password.");
+        }
+
+        // The provider already loaded the user to check the password; its principal is that user
+        if (!(authentication.getPrincipal() instanceof UserEntity user)) {
             throw new BadRequestException("Invalid email or password.");
         }
 
-        UserEntity user = userRepository.findByEmail(request.email())
-                .orElseThrow(() -> new BadRequestException("Invalid email or password."));
+        String token = jwtService.generateToken(user);
+        return new AuthResponse(token, issueRefreshToken(user.getEmail()));
+    }
+
+    @Override
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public AuthResponse refresh(RefreshTokenDTO request) {
+        RefreshTokenEntity stored = refreshTokenRepository.findByTokenHash(hash(request.refreshToken()))
+                .orElseThrow(() -> new UnauthorizedException(INVALID_REFRESH_TOKEN));
+        LocalDateTime now = LocalDateTime.now();
+
+        // Each token is used once, so a used one coming back was copied: every session of the user is ended
+        if (stored.getRevokedAt() != null) {
+            refreshTokenRepository.revokeAllByUserEmail(stored.getUserEmail(), now);
+            throw new UnauthorizedException(INVALID_REFRESH_TOKEN);
+        }
+        if (stored.getExpiresAt().isBefore(now) || refreshTokenRepository.revoke(stored.getId(), now) == 0) {
+            throw new UnauthorizedException(INVALID_REFRESH_TOKEN);
+        }
+
+        UserEntity user = userRepository.findByEmail(stored.getUserEmail())
+                .orElseThrow(() -> new UnauthorizedException(INVALID_REFRESH_TOKEN));
 
         String token = jwtService.generateToken(user);
-        return new AuthResponse(token);
+        return new AuthResponse(token, issueRefreshToken(user.getEmail()));
+    }
+
+    @Override
+    @Transactional
+    public void logout(RefreshTokenDTO request, String accessToken) {
+        refreshTokenRepository.findByTokenHash(hash(request.refreshToken()))
+                .ifPresent(stored -> refreshTokenRepository.revoke(stored.getId(), LocalDateTime.now()));
+
+        if (accessToken != null) {
+            try {
+                jwtService.revoke(accessToken);
+            } catch (Exception e) {
+                // An expired or invalid access token cannot be used anyway
+            }
+        }
+    }
+
+    /**
+     * Creates a random refresh token for the user and stores its hash.
+     *
+     * @param email The email of the user.
+     * @return The refresh token, returned to the client only.
+     */
+    private String issueRefreshToken(String email) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshTokenEntity.builder()
+                .tokenHash(hash(token))
+                .userEmail(email)
+                .createdAt(now)
+                .expiresAt(now.plusNanos(refreshExpirationMs * 1_000_000))
+                .build());
+        return token;
+    }
+
+    // Tokens are random with 256 bits of entropy, so a fast unsalted hash is enough to protect them at rest
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
     }
 }
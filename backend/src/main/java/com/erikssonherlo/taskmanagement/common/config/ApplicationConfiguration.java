@@ -1,7 +1,10 @@
 package com.erikssonherlo.taskmanagement.common.config;
 
+import com.erikssonherlo.taskmanagement.common.security.BoundedPasswordEncoder;
 import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +21,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class ApplicationConfiguration {
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    @Value("${security.password.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int passwordThreads;
+    @Value("${security.password.queue-capacity:64}")
+    private int passwordQueueCapacity;
 
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception
@@ -34,9 +42,12 @@ public class ApplicationConfiguration {
         return authenticationProvider;
     }
 
+    /**
+     * BCrypt on a bounded pool of its own, so hashing cannot take every request thread.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordThreads, passwordQueueCapacity, meterRegistry);
     }
 
     @Bean
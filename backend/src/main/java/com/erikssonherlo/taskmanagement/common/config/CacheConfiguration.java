@@ -0,0 +1,37 @@
+package com.erikssonherlo.taskmanagement.common.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-process caches, bounded by size and time to live.
+ * Hit, miss and eviction counts are published as cache.* metrics (see /actuator/metrics/cache.gets).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    /**
+     * Users by email, filled by UserRepository.findByEmail and evicted when a user is created, updated or deleted.
+     */
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.users.maximum-size:10000}") long maximumSize,
+                                     @Value("${cache.users.ttl:10m}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS_BY_EMAIL);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
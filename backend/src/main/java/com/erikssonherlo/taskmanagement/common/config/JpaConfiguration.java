@@ -0,0 +1,26 @@
+package com.erikssonherlo.taskmanagement.common.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.id.SequenceMismatchStrategy;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate settings for sequence-based id generation.
+ * Values set in application.properties take precedence.
+ */
+@Configuration
+public class JpaConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer idGenerationCustomizer() {
+        return properties -> {
+            // pooled-lo hands out [n, n + increment) for each nextval, which stays safe with rows inserted through the column default
+            properties.putIfAbsent(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+            // The INCREMENT BY of each sequence is the allocation size, so it can be tuned with ALTER SEQUENCE
+            properties.putIfAbsent(AvailableSettings.SEQUENCE_INCREMENT_SIZE_MISMATCH_STRATEGY, SequenceMismatchStrategy.FIX.name());
+        };
+    }
+}
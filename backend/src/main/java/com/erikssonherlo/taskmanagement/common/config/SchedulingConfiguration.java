@@ -0,0 +1,12 @@
+package com.erikssonherlo.taskmanagement.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs (see TaskArchiveJob and TaskPartitionJob). They run one at a time on Spring Boot's scheduler thread.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
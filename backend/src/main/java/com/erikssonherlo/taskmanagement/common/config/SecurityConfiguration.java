@@ -35,6 +35,8 @@ public class SecurityConfiguration {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authRequest ->
                         authRequest
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                                 .requestMatchers("/**","/api/v1/auth/**","/swagger-ui/**", "/swagger-ui.html","/v3/api-docs/**").permitAll()
                                 .anyRequest().authenticated()
                 )
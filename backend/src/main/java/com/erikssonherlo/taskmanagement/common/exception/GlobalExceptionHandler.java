@@ -3,6 +3,8 @@ package com.erikssonherlo.taskmanagement.common.exception;
 import com.erikssonherlo.taskmanagement.common.payload.ApiResponse;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import io.jsonwebtoken.ExpiredJwtException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -62,6 +64,34 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handlerOptimisticLockingFailureException(OptimisticLockingFailureException exception,
+                                                                                WebRequest webRequest){
+        ApiResponse apiResponse = new ApiResponse(HttpStatus.CONFLICT.value(),"The resource was modified by another request. Reload it and try again.", HttpStatus.CONFLICT,null);
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse> handlerServiceUnavailableException(ServiceUnavailableException exception,
+                                                                          WebRequest webRequest){
+        ApiResponse apiResponse = new ApiResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE,null);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(apiResponse);
+    }
+
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ApiResponse> handlerUnauthorizedException(UnauthorizedException exception,
+                                                                    WebRequest webRequest){
+        ApiResponse apiResponse = new ApiResponse(HttpStatus.UNAUTHORIZED.value(),exception.getMessage(), HttpStatus.UNAUTHORIZED,null);
+        return new ResponseEntity<>(apiResponse, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse> handlerTooManyRequestsException(TooManyRequestsException exception,
+                                                                       WebRequest webRequest){
+        ApiResponse apiResponse = new ApiResponse(HttpStatus.TOO_MANY_REQUESTS.value(),exception.getMessage(), HttpStatus.TOO_MANY_REQUESTS,null);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds())).body(apiResponse);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ApiResponse> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
         ApiResponse apiResponse = new ApiResponse(HttpStatus.BAD_REQUEST.value(),"Invalid value for parameter '" + ex.getName() + "'. Expected a " + ex.getRequiredType().getSimpleName(), HttpStatus.BAD_REQUEST,null);
@@ -0,0 +1,12 @@
+package com.erikssonherlo.taskmanagement.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNAUTHORIZED)
+public class UnauthorizedException extends RuntimeException{
+
+    public UnauthorizedException(String message){
+        super(message);
+    }
+}
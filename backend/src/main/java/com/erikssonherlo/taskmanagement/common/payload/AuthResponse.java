@@ -11,4 +11,5 @@ import lombok.*;
 @AllArgsConstructor
 public class AuthResponse {
     String token;
+    String refreshToken;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.erikssonherlo.taskmanagement.common.payload;
+
+import lombok.*;
+import org.springframework.http.HttpStatus;
+
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+public class CursorResponse<T> {
+    private Integer code;
+    private String message;
+    private HttpStatus status;
+    private T data;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public CursorResponse(Integer code, String message, HttpStatus status, T data, String nextCursor, boolean hasNext) {
+        this.code = code;
+        this.message = message;
+        this.status = status;
+        this.data = data;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
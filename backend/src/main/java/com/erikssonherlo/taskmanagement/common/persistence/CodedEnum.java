@@ -0,0 +1,13 @@
+package com.erikssonherlo.taskmanagement.common.persistence;
+
+/**
+ * Enum stored as a SMALLINT code instead of its name, see {@link CodedEnumConverter}.
+ * Codes are part of the database schema: never renumber or reuse them, only add new ones.
+ */
+public interface CodedEnum {
+
+    /**
+     * @return The code stored in the database for this constant.
+     */
+    int getCode();
+}
@@ -0,0 +1,45 @@
+package com.erikssonherlo.taskmanagement.common.persistence;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maps a {@link CodedEnum} attribute to its SMALLINT code. A two-byte column keeps the rows and every index on the
+ * column narrower than the enum name. Subclasses only bind the enum type.
+ *
+ * @param <E> The enum type.
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Short> {
+
+    private final Class<E> type;
+
+    private final Map<Short, E> constantsByCode;
+
+    protected CodedEnumConverter(Class<E> type) {
+        this.type = type;
+        // Fails on duplicate codes
+        this.constantsByCode = Arrays.stream(type.getEnumConstants())
+                .collect(Collectors.toUnmodifiableMap(constant -> (short) constant.getCode(), Function.identity()));
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(E attribute) {
+        return attribute != null ? (short) attribute.getCode() : null;
+    }
+
+    @Override
+    public E convertToEntityAttribute(Short code) {
+        if (code == null) {
+            return null;
+        }
+        E constant = constantsByCode.get(code);
+        if (constant == null) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " code: " + code);
+        }
+        return constant;
+    }
+}
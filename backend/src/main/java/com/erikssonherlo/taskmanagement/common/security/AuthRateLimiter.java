@@ -0,0 +1,70 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import com.erikssonherlo.taskmanagement.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Throttles login and registration attempts, each of which costs a BCrypt hash.
+ * <p>
+ * Attempts are limited both per email, against guessing one account's password, and per client IP, against
+ * credential stuffing across many accounts. The client IP is the remote address of the request: behind a proxy,
+ * set {@code server.forward-headers-strategy} so that it is taken from the forwarded headers.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final TokenBucketRateLimiter byEmail;
+    private final TokenBucketRateLimiter byIp;
+    private final Counter rejectedByEmail;
+    private final Counter rejectedByIp;
+
+    public AuthRateLimiter(@Value("${security.rate-limit.auth.per-email:5}") int perEmail,
+                           @Value("${security.rate-limit.auth.per-ip:20}") int perIp,
+                           @Value("${security.rate-limit.auth.period:1m}") Duration period,
+                           @Value("${security.rate-limit.auth.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${security.rate-limit.auth.maximum-keys:100000}") long maximumKeys,
+                           MeterRegistry meterRegistry) {
+        this.byEmail = new TokenBucketRateLimiter(perEmail, period, idleTimeout, maximumKeys);
+        this.byIp = new TokenBucketRateLimiter(perIp, period, idleTimeout, maximumKeys);
+
+        this.rejectedByEmail = Counter.builder("auth.rate.limit.rejected").tag("key", "email").register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.rate.limit.rejected").tag("key", "ip").register(meterRegistry);
+        Gauge.builder("auth.rate.limit.buckets", byEmail, TokenBucketRateLimiter::size).tag("key", "email").register(meterRegistry);
+        Gauge.builder("auth.rate.limit.buckets", byIp, TokenBucketRateLimiter::size).tag("key", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt for the email and the client IP.
+     *
+     * @param email    The email the attempt is for.
+     * @param clientIp The address the attempt comes from.
+     * @throws TooManyRequestsException If either has no attempts left.
+     */
+    public void check(String email, String clientIp) {
+        Duration ipWait = byIp.tryAcquire(clientIp);
+        if (!ipWait.isZero()) {
+            rejectedByIp.increment();
+            throw tooManyRequests(ipWait);
+        }
+
+        if (email != null) {
+            Duration emailWait = byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+            if (!emailWait.isZero()) {
+                rejectedByEmail.increment();
+                throw tooManyRequests(emailWait);
+            }
+        }
+    }
+
+    private TooManyRequestsException tooManyRequests(Duration wait) {
+        long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+        return new TooManyRequestsException("Too many attempts. Try again in " + seconds + " seconds.", seconds);
+    }
+}
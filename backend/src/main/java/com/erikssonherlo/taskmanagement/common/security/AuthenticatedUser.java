@@ -0,0 +1,24 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Immutable principal built once per request from the claims of the JWT.
+ * Stored in the SecurityContext and passed to the services instead of the raw token.
+ *
+ * @param id    The id of the authenticated user (token uid claim), used by the access rules.
+ * @param email The email of the authenticated user (token subject).
+ * @param role  The role of the authenticated user (token role claim).
+ */
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        Role role
+) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,15 +1,18 @@
 package com.erikssonherlo.taskmanagement.common.security;
 
+import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -17,6 +20,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * JWT Authentication Filter that validates the token and sets the authentication context.
@@ -28,6 +33,9 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
     private final JWTService jwtService;
     private final UserDetailsService userDetailsService;
 
+    @Value("${security.jwt.stateless:false}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -41,30 +49,32 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String username;
+        // Signature, expiration and claims are checked once; the result is the principal of the request
+        final AuthenticatedUser principal;
         try {
-            username = jwtService.getUsernameFromToken(token);
+            principal = jwtService.parseToken(token);
+        } catch (ExpiredJwtException e) {
+            sendForbiddenResponse(response, "Access denied: Invalid or expired JWT token.");
+            return;
         } catch (Exception e) {
             sendForbiddenResponse(response, "Access denied: Invalid JWT token.");
             return;
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities());
+                // Stateless mode trusts the verified role claim; otherwise the user is loaded to read its current authorities
+                Collection<? extends GrantedAuthority> authorities = stateless
+                        ? List.of(new SimpleGrantedAuthority(principal.role().name()))
+                        : userDetailsService.loadUserByUsername(principal.email()).getAuthorities();
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                principal,
+                                null,
+                                authorities);
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                } else {
-                    sendForbiddenResponse(response, "Access denied: Invalid or expired JWT token.");
-                    return;
-                }
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             } catch (AuthenticationException e) {
                 sendForbiddenResponse(response, "Access denied: Authentication failed.");
                 return;
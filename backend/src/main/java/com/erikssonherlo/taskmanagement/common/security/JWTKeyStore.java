@@ -0,0 +1,162 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The keys {@link JWTService} signs and verifies tokens with, read from configuration:
+ * {@code security.jwt.keys.<kid>=<Base64 secret>} for every key accepted for verification, and
+ * {@code security.jwt.signing-key-id} for the key new tokens are signed with. Without them, the single
+ * {@code security.jwt.secret} is used under the id {@code security.jwt.key-id}.
+ * <p>
+ * When {@code security.jwt.keys-file} names a properties file with the same entries (such as a secret mounted on
+ * every instance), the keys are read from it instead, and it is reloaded when it changes, checked every
+ * {@code security.jwt.keys-reload-interval}. Keys are then rotated without a restart, in three steps that must each
+ * reach every instance before the next: add the new key, make it the signing key, and remove the old key once the
+ * tokens signed with it have expired. A file that cannot be read or is invalid is rejected and the current keys
+ * are kept.
+ */
+@Component
+public class JWTKeyStore {
+
+    private static final String KEYS_PREFIX = "security.jwt.keys.";
+    private static final String SIGNING_KEY_ID = "security.jwt.signing-key-id";
+    private static final String SECRET = "security.jwt.secret";
+    private static final String KEY_ID = "security.jwt.key-id";
+
+    private final Path keysFile;
+
+    // Replaced as a whole on reload, so readers always see a consistent set of keys without locking
+    private volatile KeyRing keyRing;
+
+    private volatile FileTime keysFileModified;
+
+    public JWTKeyStore(Environment environment, @Value("${security.jwt.keys-file:}") String keysFile) {
+        this.keysFile = keysFile.isBlank() ? null : Path.of(keysFile);
+        if (this.keysFile != null) {
+            reload();
+        } else {
+            this.keyRing = parse(fromEnvironment(environment));
+        }
+    }
+
+    /**
+     * @return The current signing key and verification keys.
+     */
+    public KeyRing current() {
+        return keyRing;
+    }
+
+    /**
+     * Reloads the keys file if it changed since it was last read. Does nothing without a keys file.
+     *
+     * @return true if new keys were loaded.
+     * @throws UncheckedIOException  if the file cannot be read.
+     * @throws IllegalStateException if the file does not define the signing key.
+     */
+    @Scheduled(initialDelayString = "${security.jwt.keys-reload-interval:PT30S}",
+            fixedDelayString = "${security.jwt.keys-reload-interval:PT30S}")
+    public synchronized boolean reload() {
+        if (keysFile == null) {
+            return false;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(keysFile);
+            if (modified.equals(keysFileModified)) {
+                return false;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(keysFile)) {
+                properties.load(reader);
+            }
+            Map<String, String> entries = new TreeMap<>();
+            properties.stringPropertyNames().forEach(name -> entries.put(name, properties.getProperty(name)));
+
+            keyRing = parse(entries);
+            keysFileModified = modified;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the JWT keys file " + keysFile, e);
+        }
+    }
+
+    private static Map<String, String> fromEnvironment(Environment environment) {
+        Map<String, String> entries = new TreeMap<>();
+        Binder.get(environment)
+                .bind("security.jwt.keys", Bindable.mapOf(String.class, String.class))
+                .ifBound(keys -> keys.forEach((keyId, secret) -> entries.put(KEYS_PREFIX + keyId, secret)));
+        for (String name : new String[]{SIGNING_KEY_ID, SECRET, KEY_ID}) {
+            String value = environment.getProperty(name);
+            if (value != null) {
+                entries.put(name, value);
+            }
+        }
+        return entries;
+    }
+
+    private static KeyRing parse(Map<String, String> entries) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        entries.forEach((name, value) -> {
+            if (name.startsWith(KEYS_PREFIX)) {
+                keys.put(name.substring(KEYS_PREFIX.length()), toKey(value));
+            }
+        });
+        String signingKeyId = entries.get(SIGNING_KEY_ID);
+
+        if (keys.isEmpty() && entries.containsKey(SECRET)) {
+            signingKeyId = entries.getOrDefault(KEY_ID, "default");
+            keys.put(signingKeyId, toKey(entries.get(SECRET)));
+        }
+        if (signingKeyId == null || !keys.containsKey(signingKeyId)) {
+            throw new IllegalStateException("The JWT signing key '" + signingKeyId + "' is not among the configured keys " + keys.keySet() + ".");
+        }
+        return new KeyRing(signingKeyId, Collections.unmodifiableMap(keys));
+    }
+
+    private static Key toKey(String base64Secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+    }
+
+    /**
+     * @param signingKeyId     The id of the key new tokens are signed with, written to their kid header.
+     * @param verificationKeys The keys accepted for verification, by id.
+     */
+    public record KeyRing(String signingKeyId, Map<String, Key> verificationKeys) {
+
+        public Key signingKey() {
+            return verificationKeys.get(signingKeyId);
+        }
+
+        /**
+         * @param keyId The kid header of a token; tokens issued without one are verified with the signing key.
+         * @return The key, or null if no key has that id.
+         */
+        public Key verificationKey(String keyId) {
+            return verificationKeys.get(keyId != null ? keyId : signingKeyId);
+        }
+
+        public Set<String> keyIds() {
+            return verificationKeys.keySet();
+        }
+    }
+}
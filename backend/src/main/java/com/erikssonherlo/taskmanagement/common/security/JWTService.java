@@ -4,34 +4,72 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import com.erikssonherlo.taskmanagement.user.model.Role;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+
+/**
+ * Issues and verifies JWTs.
+ * <p>
+ * Keys are decoded when they are loaded by the {@link JWTKeyStore}, and the parser is built once. Tokens are signed
+ * with the signing key and carry its id in the {@code kid} header; verification picks the key by {@code kid} among
+ * all configured keys, which the key store can reload to rotate them. Tokens without {@code kid} are verified with
+ * the signing key.
+ * <p>
+ * Tokens also carry the id of their user ({@code uid}), so the principal is built without a lookup, and the
+ * token version of their user ({@code ver}); tokens older than the version in the
+ * {@link TokenVersionRegistry} are rejected, and an id ({@code jti}) that can be revoked on its own with
+ * {@link #revoke(String)}.
+ */
 @Service
 public class JWTService {
 
-    @Value("${security.jwt.secret}")
-    private String secretKey;
+    private final Long expirationMs;
+
+    private final JwtParser parser;
+
+    private final TokenVersionRegistry tokenVersionRegistry;
 
-    @Value("${security.jwt.expiration}")
-    private Long expirationMs;
+    private final RevokedTokenFilter revokedTokenFilter;
+
+    private final JWTKeyStore keyStore;
+
+    public JWTService(JWTKeyStore keyStore,
+                      @Value("${security.jwt.expiration}") Long expirationMs,
+                      TokenVersionRegistry tokenVersionRegistry,
+                      RevokedTokenFilter revokedTokenFilter) {
+        this.expirationMs = expirationMs;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.revokedTokenFilter = revokedTokenFilter;
+        this.keyStore = keyStore;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
 
-    public String generateToken(UserDetails user) {
+    public String generateToken(UserEntity user) {
         return getToken(new HashMap<>(), user);
     }
 
-    private String getToken(Map<String,Object> extraClaims, UserDetails user) {
+    private String getToken(Map<String,Object> extraClaims, UserEntity user) {
         String role = user.getAuthorities().stream()
                 .findFirst()
                 .map(GrantedAuthority::getAuthority)
@@ -39,36 +77,78 @@ public class JWTService {
 
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
+        claims.put("uid", user.getId());
+        claims.put("ver", tokenVersionRegistry.currentVersion(user.getUsername()));
 
+        JWTKeyStore.KeyRing ring = keyStore.current();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, ring.signingKeyId())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getKey(), SignatureAlgorithm.HS256)
+                .signWith(ring.signingKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key getKey() {
-        byte[] keyBytes=Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String getUsernameFromToken(String token) {
         return getClaim(token, Claims::getSubject);
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername())&& !isTokenExpired(token));
+    /**
+     * Verifies the signature and expiration of the token and builds the principal from its claims.
+     * The token is parsed only once.
+     *
+     * @param token The JWT.
+     * @return The authenticated user described by the token.
+     * @throws io.jsonwebtoken.JwtException if the token is invalid, expired, revoked or has no uid claim.
+     * @throws IllegalArgumentException if the role claim is missing or unknown.
+     */
+    public AuthenticatedUser parseToken(String token) {
+        Claims claims = getAllClaims(token);
+        Long version = claims.get("ver", Long.class);
+        if ((version != null ? version : 0L) < tokenVersionRegistry.currentVersion(claims.getSubject())) {
+            throw new JwtException("Token has been revoked.");
+        }
+        if (claims.getId() != null && revokedTokenFilter.mightBeRevoked(claims.getId())) {
+            throw new JwtException("Token has been revoked.");
+        }
+        String role = claims.get("role", String.class);
+        if (role == null) {
+            throw new IllegalArgumentException("Role not found in JWT token.");
+        }
+        Long userId = claims.get("uid", Long.class);
+        if (userId == null) {
+            throw new JwtException("User id not found in JWT token.");
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), Role.valueOf(role));
+    }
+
+    /**
+     * Revokes a single token until it expires, such as the access token of a session that logs out.
+     *
+     * @param token The JWT.
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or already expired.
+     */
+    public void revoke(String token) {
+        String tokenId = getAllClaims(token).getId();
+        if (tokenId != null) {
+            revokedTokenFilter.revoke(tokenId);
+        }
+    }
+
+    private Key verificationKey(String keyId) {
+        Key key = keyStore.current().verificationKey(keyId);
+        if (key == null) {
+            throw new JwtException("Unknown signing key: " + keyId);
+        }
+        return key;
     }
 
     private Claims getAllClaims(String token)
     {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -78,20 +158,4 @@ public class JWTService {
         final Claims claims=getAllClaims(token);
         return claimsResolver.apply(claims);
     }
-
-    private Date getExpiration(String token)
-    {
-        return getClaim(token, Claims::getExpiration);
-    }
-
-    private boolean isTokenExpired(String token)
-    {
-        return getExpiration(token).before(new Date());
-    }
-
-    public Role getRoleFromToken(String token) {
-        Claims claims = getAllClaims(token);
-        return claims.get("role", Role.class);
-    }
-
-}
\ No newline at end of file
+}
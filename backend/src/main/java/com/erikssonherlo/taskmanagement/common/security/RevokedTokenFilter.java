@@ -0,0 +1,146 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the ids ({@code jti}) of revoked access tokens, checked on every request without a query.
+ * <p>
+ * A check never misses a revoked token, but may reject a valid one with probability {@code false-positive-rate}
+ * while fewer than {@code expected-insertions} tokens are revoked per access token lifetime; the client then
+ * obtains a new access token, with a new id, from the refresh endpoint.
+ * <p>
+ * Revoked tokens only need to be remembered until they expire, so the filter keeps two generations, each
+ * covering one access token lifetime: ids are added to the current one and checked against both, and the older
+ * one is dropped when a new generation starts. Like {@link TokenVersionRegistry}, the filter is local to this
+ * instance and is not persisted.
+ */
+@Component
+public class RevokedTokenFilter {
+
+    private final long generationMs;
+    private final int numBits;
+    private final int numHashes;
+    private final Clock clock;
+
+    private volatile Generations generations;
+
+    public RevokedTokenFilter(@Value("${security.jwt.expiration}") long expirationMs,
+                              @Value("${security.jwt.revocation.expected-insertions:100000}") int expectedInsertions,
+                              @Value("${security.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this(expirationMs, expectedInsertions, falsePositiveRate, Clock.systemUTC());
+    }
+
+    RevokedTokenFilter(long expirationMs, int expectedInsertions, double falsePositiveRate, Clock clock) {
+        this.generationMs = expirationMs;
+        this.clock = clock;
+        // Optimal size and number of hash functions for the expected insertions and false positive rate
+        this.numBits = (int) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.generations = new Generations(currentGeneration(), new BloomFilter(numBits), new BloomFilter(numBits));
+    }
+
+    /**
+     * Marks a token id as revoked until the token expires.
+     *
+     * @param tokenId The jti of the token.
+     */
+    public void revoke(String tokenId) {
+        Generations current = advance();
+        long hash1 = hash(tokenId);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numHashes; i++) {
+            current.current().set(index(hash1, hash2, i));
+        }
+    }
+
+    /**
+     * @param tokenId The jti of the token.
+     * @return {@code false} if the token was certainly not revoked; {@code true} if it was, or in rare cases
+     * of a false positive.
+     */
+    public boolean mightBeRevoked(String tokenId) {
+        Generations current = advance();
+        long hash1 = hash(tokenId);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        return contains(current.current(), hash1, hash2) || contains(current.previous(), hash1, hash2);
+    }
+
+    private boolean contains(BloomFilter filter, long hash1, long hash2) {
+        for (int i = 0; i < numHashes; i++) {
+            if (!filter.get(index(hash1, hash2, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Generations advance() {
+        Generations current = generations;
+        long generation = currentGeneration();
+        if (generation == current.index()) {
+            return current;
+        }
+        synchronized (this) {
+            current = generations;
+            if (generation != current.index()) {
+                // The current generation becomes the previous one; anything older has expired
+                BloomFilter previous = generation == current.index() + 1 ? current.current() : new BloomFilter(numBits);
+                current = new Generations(generation, new BloomFilter(numBits), previous);
+                generations = current;
+            }
+            return current;
+        }
+    }
+
+    private long currentGeneration() {
+        return clock.millis() / generationMs;
+    }
+
+    // Double hashing: the i-th index is hash1 + i * hash2
+    private int index(long hash1, long hash2, int i) {
+        return (int) Math.floorMod(hash1 + i * hash2, (long) numBits);
+    }
+
+    private static long hash(String value) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return mix(hash);
+    }
+
+    // Finalizer of MurmurHash3, which spreads every input bit over the whole hash
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Generations(long index, BloomFilter current, BloomFilter previous) {
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+
+        BloomFilter(int numBits) {
+            this.words = new AtomicLongArray((numBits + 63) / 64);
+        }
+
+        void set(int bit) {
+            long mask = 1L << bit;
+            words.accumulateAndGet(bit >>> 6, mask, (word, m) -> word | m);
+        }
+
+        boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process token buckets, one per key, each holding up to {@code capacity} tokens that refill evenly over
+ * {@code refillPeriod}.
+ * <p>
+ * A bucket is a single {@link AtomicLong} with the time at which it will be full again (the generic cell rate
+ * algorithm), so taking a token is one compare-and-set and never locks. Buckets live in a Caffeine cache that
+ * drops those idle for {@code idleTimeout} and caps the number of keys, so memory stays bounded however many
+ * distinct keys are seen. An evicted bucket comes back full, which is what an idle bucket would be anyway when
+ * {@code idleTimeout} is at least {@code refillPeriod}.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(int capacity, Duration refillPeriod, Duration idleTimeout, long maximumKeys) {
+        this(capacity, refillPeriod, idleTimeout, maximumKeys, Ticker.systemTicker());
+    }
+
+    TokenBucketRateLimiter(int capacity, Duration refillPeriod, Duration idleTimeout, long maximumKeys, Ticker ticker) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of a rate limiter must be at least 1.");
+        }
+        this.nanosPerToken = refillPeriod.toNanos() / capacity;
+        this.burstNanos = nanosPerToken * capacity;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maximumKeys)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param key The key to limit, such as an email or an IP address.
+     * @return Zero if a token was taken, otherwise the time until the next token is available.
+     */
+    public Duration tryAcquire(String key) {
+        long now = ticker.read();
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * @return The approximate number of buckets held.
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+}
@@ -0,0 +1,37 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory table of per-user token versions, used to revoke issued JWTs.
+ * <p>
+ * Every token carries the version of its user at issue time in the {@code ver} claim. Revoking bumps the
+ * version, which rejects every token issued before. Only users that had their tokens revoked are stored.
+ * The table is local to this instance and is not persisted: after a restart, tokens revoked before it are
+ * accepted again until they expire.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param email The email of the user.
+     * @return The version new tokens of the user are issued with.
+     */
+    public long currentVersion(String email) {
+        return versions.getOrDefault(email, 0L);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far.
+     *
+     * @param email The email of the user.
+     */
+    public void revoke(String email) {
+        versions.merge(email, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,93 @@
+package com.erikssonherlo.taskmanagement.task.archive;
+
+import com.erikssonherlo.taskmanagement.task.repository.TaskArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically moves soft-deleted tasks, and DONE / CANCELLED tasks untouched for {@code task.archive.completed-after},
+ * to the archive, so that live queries and indexes stop paying for dead rows.
+ * <p>
+ * Each batch is a separate short transaction that skips locked rows, with a pause between batches to leave room for
+ * regular traffic; a run stops after {@code task.archive.max-batches} batches and the rest waits for the next run.
+ * Progress is exposed as {@code tasks.archive.archived} (rows moved), {@code tasks.archive.batch} (batch duration)
+ * and {@code tasks.archive.last.run.archived} (rows moved by the last run).
+ */
+@Component
+@ConditionalOnProperty(name = "task.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiveJob {
+
+    private final TaskArchiveRepository taskArchiveRepository;
+    private final Duration completedAfter;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration pause;
+    private final Counter archived;
+    private final Timer batchTimer;
+    private final AtomicLong lastRunArchived = new AtomicLong();
+
+    public TaskArchiveJob(TaskArchiveRepository taskArchiveRepository,
+                          @Value("${task.archive.completed-after:30d}") Duration completedAfter,
+                          @Value("${task.archive.batch-size:500}") int batchSize,
+                          @Value("${task.archive.max-batches:1000}") int maxBatches,
+                          @Value("${task.archive.pause:200ms}") Duration pause,
+                          MeterRegistry meterRegistry) {
+        this.taskArchiveRepository = taskArchiveRepository;
+        this.completedAfter = completedAfter;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pause = pause;
+
+        this.archived = Counter.builder("tasks.archive.archived").register(meterRegistry);
+        this.batchTimer = Timer.builder("tasks.archive.batch").register(meterRegistry);
+        Gauge.builder("tasks.archive.last.run.archived", lastRunArchived, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Archives batches until one comes back incomplete, the batch limit is reached or the thread is interrupted.
+     *
+     * @return The number of tasks archived by this run.
+     */
+    @Scheduled(initialDelayString = "${task.archive.initial-delay:PT5M}", fixedDelayString = "${task.archive.interval:PT1H}")
+    public long run() {
+        LocalDateTime completedBefore = LocalDateTime.now().minus(completedAfter);
+        long total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int moved = batchTimer.record(() -> taskArchiveRepository.archiveBatch(completedBefore, batchSize));
+            archived.increment(moved);
+            total += moved;
+
+            if (moved < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        lastRunArchived.set(total);
+        return total;
+    }
+
+    private boolean pause() {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            // Shutting down: the remaining rows are archived by the next run
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,25 +1,37 @@
 package com.erikssonherlo.taskmanagement.task.controller;
 
-import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.payload.ApiResponse;
-import com.erikssonherlo.taskmanagement.common.security.JWTService;
+import com.erikssonherlo.taskmanagement.common.payload.CursorResponse;
+import com.erikssonherlo.taskmanagement.common.payload.PaginatedResponse;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.ArchivedTaskDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkDeleteDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkStatusUpdateDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkTaskResultDTO;
 import com.erikssonherlo.taskmanagement.task.dto.CreateTaskForOtherDTO;
 import com.erikssonherlo.taskmanagement.task.dto.CreateTaskForSelfDTO;
 import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.dto.TaskScrollDTO;
 import com.erikssonherlo.taskmanagement.task.dto.UpdateTaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskExportFormat;
 import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
 import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
 import com.erikssonherlo.taskmanagement.task.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,15 +49,14 @@ public class TaskController {
     @PostMapping("/self")
     @Operation(summary = "Create task for self", description = "Create a task for the current authenticated user")
     public ApiResponse<TaskDTO> createTaskForSelf(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestBody @Valid CreateTaskForSelfDTO dto
     ) {
-        String token = extractToken(authHeader);
         return new ApiResponse<>(
                 HttpStatus.OK.value(),
                 "Task created successfully",
                 HttpStatus.OK,
-                taskService.createTaskForSelf(dto, token)
+                taskService.createTaskForSelf(dto, currentUser)
         );
     }
 
@@ -53,49 +64,136 @@ public class TaskController {
     @PostMapping("")
     @Operation(summary = "Create task for another user", description = "Create a task assigned to another user (Manager/Admin only)")
     public ApiResponse<TaskDTO> createTaskForOther(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestBody @Valid CreateTaskForOtherDTO dto
     ) {
-        String token = extractToken(authHeader);
         return new ApiResponse<>(
                 HttpStatus.OK.value(),
                 "Task created successfully for other user",
                 HttpStatus.OK,
-                taskService.createTaskForOther(dto, token)
+                taskService.createTaskForOther(dto, currentUser)
         );
     }
 
-    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
-    @GetMapping
-    @Operation(summary = "Get tasks", description = "Retrieve tasks with optional filters by status and priority")
-    public ApiResponse<List<TaskDTO>> getAllTasks(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
-            @RequestParam(required = false) TaskStatus status,
-            @RequestParam(required = false) TaskPriority priority
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER')")
+    @PostMapping("/bulk")
+    @Operation(summary = "Create tasks in bulk", description = "Create many tasks assigned to other users in one request (Manager/Admin only). Returns one result per item; invalid items are reported and skipped.")
+    public ApiResponse<List<BulkTaskResultDTO>> createTasksForOthers(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody List<CreateTaskForOtherDTO> dtos
     ) {
-        String token = extractToken(authHeader);
         return new ApiResponse<>(
                 HttpStatus.OK.value(),
-                "Tasks retrieved successfully",
+                "Bulk task creation processed",
                 HttpStatus.OK,
-                taskService.getAllTasks(token, Optional.ofNullable(status), Optional.ofNullable(priority))
+                taskService.createTasksForOthers(dtos, currentUser)
         );
     }
 
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @GetMapping
+    @Operation(summary = "Get tasks", description = "Retrieve a page of tasks with optional filters by status and priority")
+    public PaginatedResponse<List<TaskDTO>> getAllTasks(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) TaskPriority priority,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        Page<TaskDTO> taskPage = taskService.getAllTasks(currentUser, Optional.ofNullable(status), Optional.ofNullable(priority), page, size);
+
+        return PaginatedResponse.<List<TaskDTO>>builder()
+                .code(HttpStatus.OK.value())
+                .message("Tasks retrieved successfully")
+                .status(HttpStatus.OK)
+                .data(taskPage.getContent())
+                .pageable(taskPage.getPageable())
+                .isFirst(taskPage.isFirst())
+                .isLast(taskPage.isLast())
+                .hasNext(taskPage.hasNext())
+                .hasPrevious(taskPage.hasPrevious())
+                .totalPages(taskPage.getTotalPages())
+                .totalElements((int) taskPage.getTotalElements())
+                .build();
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @GetMapping("/archive")
+    @Operation(summary = "Get archived tasks", description = "Retrieve a page of archived tasks (deleted, or completed and untouched for a while), most recently archived first")
+    public PaginatedResponse<List<ArchivedTaskDTO>> getArchivedTasks(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        Page<ArchivedTaskDTO> taskPage = taskService.getArchivedTasks(currentUser, page, size);
+
+        return PaginatedResponse.<List<ArchivedTaskDTO>>builder()
+                .code(HttpStatus.OK.value())
+                .message("Archived tasks retrieved successfully")
+                .status(HttpStatus.OK)
+                .data(taskPage.getContent())
+                .pageable(taskPage.getPageable())
+                .isFirst(taskPage.isFirst())
+                .isLast(taskPage.isLast())
+                .hasNext(taskPage.hasNext())
+                .hasPrevious(taskPage.hasPrevious())
+                .totalPages(taskPage.getTotalPages())
+                .totalElements((int) taskPage.getTotalElements())
+                .build();
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll tasks", description = "Retrieve tasks with cursor-based pagination ordered by due date or last update. Pass the returned nextCursor to get the next slice.")
+    public CursorResponse<List<TaskDTO>> scrollTasks(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) TaskPriority priority,
+            @RequestParam(defaultValue = "DUE_DATE") TaskSortKey sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        TaskScrollDTO slice = taskService.scrollTasks(currentUser, Optional.ofNullable(status), Optional.ofNullable(priority), sort, cursor, size);
+
+        return CursorResponse.<List<TaskDTO>>builder()
+                .code(HttpStatus.OK.value())
+                .message("Tasks retrieved successfully")
+                .status(HttpStatus.OK)
+                .data(slice.tasks())
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.nextCursor() != null)
+                .build();
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @GetMapping("/export")
+    @Operation(summary = "Export tasks", description = "Stream every visible task as NDJSON or CSV, with optional filters by status and priority")
+    public void exportTasks(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) TaskPriority priority,
+            @RequestParam(defaultValue = "NDJSON") TaskExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.getExtension() + "\"");
+        taskService.exportTasks(currentUser, Optional.ofNullable(status), Optional.ofNullable(priority), format, response.getOutputStream());
+    }
+
     @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
     @PatchMapping("/{taskId}")
-    @Operation(summary = "Update task", description = "Partially update a task by ID (fields optional, role-based restrictions apply)")
+    @Operation(summary = "Update task", description = "Partially update a task by ID (fields optional, role-based restrictions apply). The version from the last read is required; a stale one is rejected with 409")
     public ApiResponse<TaskDTO> updateTask(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long taskId,
             @RequestBody @Valid UpdateTaskDTO dto
     ) {
-        String token = extractToken(authHeader);
         return new ApiResponse<>(
                 HttpStatus.OK.value(),
                 "Task updated successfully",
                 HttpStatus.OK,
-                taskService.updateTask(taskId, dto, token)
+                taskService.updateTask(taskId, dto, currentUser)
         );
     }
 
@@ -103,11 +201,10 @@ public class TaskController {
     @DeleteMapping("/{taskId}")
     @Operation(summary = "Delete task", description = "Delete a task by ID (role-based restrictions apply)")
     public ApiResponse<Void> deleteTask(
-            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long taskId
     ) {
-        String token = extractToken(authHeader);
-        taskService.deleteTask(taskId, token);
+        taskService.deleteTask(taskId, currentUser);
         return new ApiResponse<>(
                 HttpStatus.NO_CONTENT.value(),
                 "Task deleted successfully",
@@ -116,10 +213,33 @@ public class TaskController {
         );
     }
 
-    private String extractToken(String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        throw new BadRequestException("Missing or invalid Authorization header.");
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @PatchMapping("/bulk/status")
+    @Operation(summary = "Update task status in bulk", description = "Set the status of many tasks at once. Fails without changes if any task is missing or not allowed (role-based restrictions apply)")
+    public ApiResponse<Integer> updateTasksStatus(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody @Valid BulkStatusUpdateDTO dto
+    ) {
+        return new ApiResponse<>(
+                HttpStatus.OK.value(),
+                "Tasks updated successfully",
+                HttpStatus.OK,
+                taskService.updateTasksStatus(dto, currentUser)
+        );
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @DeleteMapping("/bulk")
+    @Operation(summary = "Delete tasks in bulk", description = "Delete many tasks at once. Fails without changes if any task is missing or not allowed (role-based restrictions apply)")
+    public ApiResponse<Integer> deleteTasks(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody @Valid BulkDeleteDTO dto
+    ) {
+        return new ApiResponse<>(
+                HttpStatus.OK.value(),
+                "Tasks deleted successfully",
+                HttpStatus.OK,
+                taskService.deleteTasks(dto, currentUser)
+        );
     }
 }
@@ -0,0 +1,40 @@
+package com.erikssonherlo.taskmanagement.task.dto;
+
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for an archived task (read-only).
+ *
+ * @param id          The unique identifier of the task.
+ * @param title       The title of the task.
+ * @param description A brief description of the task.
+ * @param status      The status of the task when it was archived.
+ * @param priority    The priority level of the task.
+ * @param dueDate     The due date for the task completion.
+ * @param assignedTo  The email address of the user to whom the task was assigned.
+ * @param createdBy   The email address of the user who created the task.
+ * @param createdAt   The timestamp when the task was created.
+ * @param updatedAt   The timestamp when the task was last updated.
+ * @param deletedAt   The timestamp when the task was deleted, or null if it was archived as completed.
+ * @param archivedAt  The timestamp when the task was moved to the archive.
+ */
+@Builder
+public record ArchivedTaskDTO(
+        Long id,
+        String title,
+        String description,
+        TaskStatus status,
+        TaskPriority priority,
+        LocalDateTime dueDate,
+        String assignedTo,
+        String createdBy,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime deletedAt,
+        LocalDateTime archivedAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.erikssonherlo.taskmanagement.task.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BulkDeleteDTO(
+        @NotEmpty(message = "Task ids are required")
+        List<@NotNull(message = "Task id is required") Long> taskIds
+) {
+}
@@ -0,0 +1,17 @@
+package com.erikssonherlo.taskmanagement.task.dto;
+
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BulkStatusUpdateDTO(
+        @NotEmpty(message = "Task ids are required")
+        List<@NotNull(message = "Task id is required") Long> taskIds,
+        @NotNull(message = "Status is required")
+        TaskStatus status
+) {
+}
@@ -0,0 +1,16 @@
+package com.erikssonherlo.taskmanagement.task.dto;
+
+import lombok.Builder;
+
+/**
+ * Outcome of one item of a bulk task creation.
+ * index is the position of the item in the request; task is set on success and error on failure.
+ */
+@Builder
+public record BulkTaskResultDTO(
+        int index,
+        boolean success,
+        TaskDTO task,
+        String error
+) {
+}
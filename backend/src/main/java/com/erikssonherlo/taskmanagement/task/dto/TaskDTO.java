@@ -23,6 +23,7 @@ import java.time.LocalDateTime;
  * @param createdBy   The email address of the user who created the task.
  * @param createdAt   The timestamp when the task was created.
  * @param updatedAt   The timestamp when the task was last updated.
+ * @param version     The optimistic locking version, to be sent back when updating the task.
  */
 @Builder
 public record TaskDTO(
@@ -35,6 +36,7 @@ public record TaskDTO(
         String assignedTo,
         String createdBy,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 ) {
 }
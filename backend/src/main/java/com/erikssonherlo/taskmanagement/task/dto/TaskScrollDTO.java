@@ -0,0 +1,18 @@
+package com.erikssonherlo.taskmanagement.task.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * A slice of a cursor-based task listing.
+ *
+ * @param tasks      The tasks of the current slice.
+ * @param nextCursor Opaque token to fetch the next slice, or null if this is the last one.
+ */
+@Builder
+public record TaskScrollDTO(
+        List<TaskDTO> tasks,
+        String nextCursor
+) {
+}
@@ -16,6 +16,9 @@ public record UpdateTaskDTO(
         String description,
         TaskPriority priority,
         TaskStatus status,
-        LocalDateTime dueDate
+        LocalDateTime dueDate,
+        // Version of the task the client last read; the update is rejected with 409 if the task changed since
+        @NotNull(message = "Version is required")
+        Long version
 ) {
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 
@@ -22,12 +23,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "tasks")
-@SQLDelete(sql = "UPDATE tasks SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE tasks SET deleted_at = NOW(), version = version + 1 WHERE id = ? AND version = ?")
 @Where(clause = "deleted_at IS NULL")
+@DynamicUpdate
 public class TaskEntity {
 
+    // Sequence ids are assigned before the INSERT, which lets Hibernate batch inserts (IDENTITY disables batching).
+    // One nextval reserves a block of ids; the block size follows the sequence INCREMENT BY (see JpaConfiguration).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+    @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,25 +41,26 @@ public class TaskEntity {
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    @Enumerated(EnumType.STRING)
+    // Stored as SMALLINT codes, which keeps the rows and the indexes on these columns narrow
+    @Convert(converter = TaskStatusConverter.class)
     @Column(nullable = false)
     private TaskStatus status;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = TaskPriorityConverter.class)
     @Column(nullable = false)
     private TaskPriority priority;
 
     @Column(name = "due_date")
     private LocalDateTime dueDate;
 
-    // Many tasks can be assigned to one user (assigned_to)
+    // Many tasks can be assigned to one user (assigned_to_id)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "assigned_to")
+    @JoinColumn(name = "assigned_to_id")
     private UserEntity assignedTo;
 
-    // Many tasks can be created by one user (created_by)
+    // Many tasks can be created by one user (created_by_id)
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
-    @JoinColumn(name = "created_by", nullable = false)
+    @JoinColumn(name = "created_by_id", nullable = false)
     private UserEntity createdBy;
 
     @Column(name = "created_at", updatable = false)
@@ -66,6 +72,10 @@ public class TaskEntity {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
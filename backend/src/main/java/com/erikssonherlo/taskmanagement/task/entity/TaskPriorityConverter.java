@@ -0,0 +1,16 @@
+package com.erikssonherlo.taskmanagement.task.entity;
+
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnumConverter;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TaskPriority} in the SMALLINT column task.priority as its code.
+ */
+@Converter
+public class TaskPriorityConverter extends CodedEnumConverter<TaskPriority> {
+
+    public TaskPriorityConverter() {
+        super(TaskPriority.class);
+    }
+}
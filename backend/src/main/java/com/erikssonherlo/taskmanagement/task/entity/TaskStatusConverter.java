@@ -0,0 +1,16 @@
+package com.erikssonherlo.taskmanagement.task.entity;
+
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnumConverter;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TaskStatus} in the SMALLINT column task.status as its code.
+ */
+@Converter
+public class TaskStatusConverter extends CodedEnumConverter<TaskStatus> {
+
+    public TaskStatusConverter() {
+        super(TaskStatus.class);
+    }
+}
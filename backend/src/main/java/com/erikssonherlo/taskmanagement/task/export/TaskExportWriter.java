@@ -0,0 +1,63 @@
+package com.erikssonherlo.taskmanagement.task.export;
+
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of tasks incrementally, one row at a time, so memory use does not depend on the number of tasks.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskExportWriter {
+
+    private static final String CSV_HEADER = "id,title,description,status,priority,dueDate,assignedTo,createdBy,createdAt,updatedAt,version";
+
+    private final ObjectMapper objectMapper;
+
+    public void write(Stream<TaskDTO> tasks, TaskExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format == TaskExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        Iterator<TaskDTO> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            TaskDTO task = iterator.next();
+            writer.write(format == TaskExportFormat.CSV ? toCsv(task) : objectMapper.writeValueAsString(task));
+            writer.write('\n');
+        }
+
+        writer.flush();
+    }
+
+    private String toCsv(TaskDTO task) {
+        return String.join(",",
+                csv(task.id()), csv(task.title()), csv(task.description()), csv(task.status()), csv(task.priority()),
+                csv(task.dueDate()), csv(task.assignedTo()), csv(task.createdBy()), csv(task.createdAt()), csv(task.updatedAt()), csv(task.version()));
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
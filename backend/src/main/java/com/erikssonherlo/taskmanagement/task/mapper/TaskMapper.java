@@ -47,6 +47,7 @@ public class TaskMapper{
                 .assignedTo(entity.getAssignedTo().getEmail())
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(entity.getUpdatedAt())
+                .version(entity.getVersion())
                 .build();
     }
 
@@ -0,0 +1,10 @@
+package com.erikssonherlo.taskmanagement.task.model;
+
+/**
+ * Operations on a task that are subject to role-based access rules.
+ */
+public enum TaskAction {
+    VIEW,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,40 @@
+package com.erikssonherlo.taskmanagement.task.model;
+
+import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last task returned by a cursor-based listing.
+ * Clients receive it as an opaque token and send it back to fetch the next slice.
+ *
+ * @param sortKey The sort key the listing was ordered by.
+ * @param value   The sort key value of the last returned task.
+ * @param id      The id of the last returned task (tie-breaker).
+ */
+public record TaskCursor(TaskSortKey sortKey, LocalDateTime value, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new BadRequestException("Invalid cursor.");
+            }
+            return new TaskCursor(TaskSortKey.valueOf(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor.");
+        }
+    }
+}
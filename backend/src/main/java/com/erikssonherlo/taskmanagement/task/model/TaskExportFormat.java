@@ -0,0 +1,17 @@
+package com.erikssonherlo.taskmanagement.task.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Output formats supported by the task export.
+ */
+@Getter
+@AllArgsConstructor
+public enum TaskExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+}
@@ -1,7 +1,16 @@
 package com.erikssonherlo.taskmanagement.task.model;
 
-public enum TaskPriority {
-    LOW,
-    MEDIUM,
-    HIGH
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum TaskPriority implements CodedEnum {
+    LOW(0),
+    MEDIUM(1),
+    HIGH(2);
+
+    // Stored in tasks.priority (see TaskPriorityConverter)
+    private final int code;
 }
@@ -0,0 +1,17 @@
+package com.erikssonherlo.taskmanagement.task.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sort keys supported by the cursor-based task listing.
+ * Each key is combined with the task id to give a stable, unique ordering.
+ */
+@Getter
+@AllArgsConstructor
+public enum TaskSortKey {
+    DUE_DATE("dueDate"),
+    UPDATED_AT("updatedAt");
+
+    private final String attribute;
+}
@@ -1,13 +1,18 @@
 package com.erikssonherlo.taskmanagement.task.model;
 
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnum;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 
+@Getter
 @AllArgsConstructor
+public enum TaskStatus implements CodedEnum {
+    TO_DO(0),
+    IN_PROGRESS(1),
+    REVIEW(2),
+    DONE(3),
+    CANCELLED(4);
 
-public enum TaskStatus {
-    TO_DO,
-    IN_PROGRESS,
-    REVIEW,
-    DONE,
-    CANCELLED
+    // Stored in tasks.status (see TaskStatusConverter)
+    private final int code;
 }
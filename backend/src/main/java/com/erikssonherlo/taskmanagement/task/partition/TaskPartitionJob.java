@@ -0,0 +1,68 @@
+package com.erikssonherlo.taskmanagement.task.partition;
+
+import com.erikssonherlo.taskmanagement.task.repository.TaskPartitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the id range partitions of {@code tasks} ahead of the id sequence, so that there are always at least
+ * {@code task.partitions.ahead} empty partitions of {@code task.partitions.size} ids to insert into. An id without a
+ * partition fails its INSERT.
+ * <p>
+ * Runs at startup and then every {@code task.partitions.interval}. Progress is exposed as
+ * {@code tasks.partitions.created} (partitions created) and {@code tasks.partitions.headroom} (ids left before the
+ * last partition is full, as of the last run).
+ */
+@Component
+@ConditionalOnProperty(name = "task.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskPartitionJob {
+
+    private final TaskPartitionRepository taskPartitionRepository;
+    private final long size;
+    private final int ahead;
+    private final Counter created;
+    private final AtomicLong headroom = new AtomicLong();
+
+    public TaskPartitionJob(TaskPartitionRepository taskPartitionRepository,
+                            @Value("${task.partitions.size:1000000}") long size,
+                            @Value("${task.partitions.ahead:3}") int ahead,
+                            MeterRegistry meterRegistry) {
+        this.taskPartitionRepository = taskPartitionRepository;
+        this.size = size;
+        this.ahead = ahead;
+
+        this.created = Counter.builder("tasks.partitions.created").register(meterRegistry);
+        Gauge.builder("tasks.partitions.headroom", headroom, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Appends partitions after the last one until they cover {@code ahead * size} ids past the sequence.
+     *
+     * @return The number of partitions created by this run, not counting those another instance created first.
+     */
+    @Scheduled(initialDelayString = "${task.partitions.initial-delay:PT0S}", fixedDelayString = "${task.partitions.interval:PT1H}")
+    public int run() {
+        long upperBound = taskPartitionRepository.findUpperBound();
+        long lastReservedId = taskPartitionRepository.findLastReservedId();
+        int partitions = 0;
+
+        while (upperBound - lastReservedId < ahead * size) {
+            // Another instance may have created it since the upper bound was read
+            if (taskPartitionRepository.createPartition(upperBound, upperBound + size)) {
+                created.increment();
+                partitions++;
+            }
+            upperBound += size;
+        }
+
+        headroom.set(upperBound - lastReservedId);
+        return partitions;
+    }
+}
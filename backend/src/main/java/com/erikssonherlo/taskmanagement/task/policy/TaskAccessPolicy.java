@@ -0,0 +1,154 @@
+package com.erikssonherlo.taskmanagement.task.policy;
+
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single definition of the role-based task access rules.
+ * <p>
+ * A task is self-managed when it was created by and is assigned to the same user.
+ * <ul>
+ *     <li>MEMBER: can view and update the tasks assigned to them, and delete only their own self-managed tasks.</li>
+ *     <li>ADMIN / MANAGER: can view, update and delete any task except the self-managed tasks of other users.</li>
+ * </ul>
+ * The rules can be rendered as a Criteria predicate or as an SQL condition, so queries never return rows the
+ * caller cannot access, or evaluated in memory against an already loaded task. All forms only read the creator
+ * and assignee ids (the FK columns), so they never load or join the related users.
+ */
+@Component
+public class TaskAccessPolicy {
+
+    /**
+     * Named parameter the SQL form of the rules binds the current user's id to.
+     */
+    public static final String CURRENT_USER_ID_PARAM = "currentUserId";
+
+    /**
+     * Renders the rule for the given action as a Specification.
+     *
+     * @param action The action to check.
+     * @param userId The id of the current user.
+     * @param role   The role of the current user.
+     * @return Specification matching the tasks the user is allowed to act on.
+     */
+    public Specification<TaskEntity> specification(TaskAction action, Long userId, Role role) {
+        return (task, query, cb) -> predicate(action, task, cb, userId, role);
+    }
+
+    /**
+     * Renders the rule for the given action as a Criteria predicate over the given root.
+     * Usable from select, update and delete criteria queries.
+     *
+     * @param action The action to check.
+     * @param task   The task root of the query.
+     * @param cb     The criteria builder.
+     * @param userId The id of the current user.
+     * @param role   The role of the current user.
+     * @return Predicate matching the tasks the user is allowed to act on.
+     */
+    public Predicate predicate(TaskAction action, Root<TaskEntity> task, CriteriaBuilder cb, Long userId, Role role) {
+        Path<Long> createdBy = task.get("createdBy").get("id");
+        Path<Long> assignedTo = task.get("assignedTo").get("id");
+
+        Predicate selfManaged = cb.and(cb.isNotNull(assignedTo), cb.equal(createdBy, assignedTo));
+
+        if (role == Role.MEMBER) {
+            Predicate isOwnTask = cb.equal(assignedTo, userId);
+            return action == TaskAction.DELETE ? cb.and(isOwnTask, selfManaged) : isOwnTask;
+        }
+
+        // ADMIN / MANAGER: everything except self-managed tasks of other users
+        return cb.or(cb.not(selfManaged), cb.equal(createdBy, userId));
+    }
+
+    /**
+     * Renders the rule for the given action as an SQL condition over the columns of {@code tasks}, for queries
+     * that do not go through JPA. The id of the current user must be bound to {@link #CURRENT_USER_ID_PARAM}.
+     *
+     * @param action The action to check.
+     * @param role   The role of the current user.
+     * @return SQL condition matching the tasks the user is allowed to act on.
+     */
+    public String sqlCondition(TaskAction action, Role role) {
+        String currentUser = ":" + CURRENT_USER_ID_PARAM;
+        String selfManaged = "(assigned_to_id IS NOT NULL AND created_by_id = assigned_to_id)";
+
+        if (role == Role.MEMBER) {
+            String isOwnTask = "assigned_to_id = " + currentUser;
+            return action == TaskAction.DELETE ? "(" + isOwnTask + " AND " + selfManaged + ")" : "(" + isOwnTask + ")";
+        }
+
+        return "(NOT " + selfManaged + " OR created_by_id = " + currentUser + ")";
+    }
+
+    /**
+     * Evaluates the rule for the given action against a loaded task.
+     *
+     * @param action The action to check.
+     * @param task   The task to check.
+     * @param userId The id of the current user.
+     * @param role   The role of the current user.
+     * @return true if the user is allowed to act on the task.
+     */
+    public boolean isAllowed(TaskAction action, TaskEntity task, Long userId, Role role) {
+        Long createdBy = idOf(task.getCreatedBy());
+        Long assignedTo = idOf(task.getAssignedTo());
+
+        boolean selfManaged = assignedTo != null && assignedTo.equals(createdBy);
+
+        if (role == Role.MEMBER) {
+            boolean isOwnTask = userId.equals(assignedTo);
+            return action == TaskAction.DELETE ? isOwnTask && selfManaged : isOwnTask;
+        }
+
+        return !selfManaged || userId.equals(createdBy);
+    }
+
+    /**
+     * Evaluates the rule for the given action against a loaded task and rejects the operation if it is not allowed.
+     *
+     * @param action The action to check.
+     * @param task   The task to check.
+     * @param userId The id of the current user.
+     * @param role   The role of the current user.
+     * @throws AccessDeniedException if the user is not allowed to act on the task.
+     */
+    public void check(TaskAction action, TaskEntity task, Long userId, Role role) {
+        if (!isAllowed(action, task, userId, role)) {
+            throw new AccessDeniedException(deniedMessage(action, role));
+        }
+    }
+
+    /**
+     * Message used when the rule for the given action rejects the operation.
+     *
+     * @param action The rejected action.
+     * @param role   The role of the current user.
+     * @return The error message.
+     */
+    public String deniedMessage(TaskAction action, Role role) {
+        return switch (action) {
+            case VIEW -> "You are not allowed to access this task.";
+            case UPDATE -> role == Role.MEMBER
+                    ? "You can only update your own assigned tasks."
+                    : "Cannot modify self-managed task of another user.";
+            case DELETE -> role == Role.MEMBER
+                    ? "You can only delete your own self-managed tasks."
+                    : "Cannot delete self-managed task of another user.";
+        };
+    }
+
+    // Reading the id of a lazy proxy does not initialize it
+    private Long idOf(UserEntity user) {
+        return user != null ? user.getId() : null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.task.dto.ArchivedTaskDTO;
+import com.erikssonherlo.taskmanagement.task.entity.TaskPriorityConverter;
+import com.erikssonherlo.taskmanagement.task.entity.TaskStatusConverter;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves soft-deleted and completed tasks from {@code tasks} to {@code tasks_archive}, and reads the archive.
+ * <p>
+ * Plain SQL rather than JPA: a batch is moved by a single statement, without loading the rows, and the archive has
+ * no entity. PostgreSQL only (data-modifying CTE, {@code SKIP LOCKED}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskArchiveRepository {
+
+    private static final TaskStatusConverter STATUS_CONVERTER = new TaskStatusConverter();
+    private static final TaskPriorityConverter PRIORITY_CONVERTER = new TaskPriorityConverter();
+
+    private static final String TASK_COLUMNS = "id, title, description, status, priority, due_date, " +
+            "assigned_to_id, created_by_id, created_at, updated_at, deleted_at, version";
+
+    // Literal codes, so the condition matches the predicate of idx_task_archivable (V15)
+    private static final String ARCHIVABLE = "deleted_at IS NOT NULL OR (status IN (" +
+            STATUS_CONVERTER.convertToDatabaseColumn(TaskStatus.DONE) + ", " +
+            STATUS_CONVERTER.convertToDatabaseColumn(TaskStatus.CANCELLED) + ") AND updated_at < :completedBefore)";
+
+    // Rows locked by a concurrent update (or another instance running the job) are skipped, not waited for; a task
+    // reopened in the meantime no longer matches when the lock is taken, so it is not archived
+    private static final String ARCHIVE_BATCH =
+            "WITH moved AS (" +
+            " DELETE FROM tasks WHERE id IN (" +
+            "  SELECT id FROM tasks WHERE " + ARCHIVABLE + " LIMIT :batchSize FOR UPDATE SKIP LOCKED)" +
+            " RETURNING " + TASK_COLUMNS + ")" +
+            " INSERT INTO tasks_archive (" + TASK_COLUMNS + ", archived_at)" +
+            " SELECT " + TASK_COLUMNS + ", CURRENT_TIMESTAMP FROM moved";
+
+    private static final String FROM = " FROM tasks_archive t" +
+            " LEFT JOIN users a ON a.id = t.assigned_to_id" +
+            " LEFT JOIN users c ON c.id = t.created_by_id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves up to {@code batchSize} archivable tasks to the archive in one statement (and one transaction when
+     * called outside of one): soft-deleted tasks, and DONE / CANCELLED tasks last updated before the given time.
+     *
+     * @param completedBefore DONE / CANCELLED tasks updated before this time are archived.
+     * @param batchSize       Maximum number of tasks to move.
+     * @return The number of tasks moved.
+     */
+    public int archiveBatch(LocalDateTime completedBefore, int batchSize) {
+        return jdbcTemplate.update(ARCHIVE_BATCH, new MapSqlParameterSource()
+                .addValue("completedBefore", Timestamp.valueOf(completedBefore))
+                .addValue("batchSize", batchSize));
+    }
+
+    /**
+     * Finds a page of archived tasks matching the access condition, most recently archived first.
+     *
+     * @param accessCondition SQL condition of the access rule, see {@link TaskAccessPolicy#sqlCondition}.
+     * @param currentUserId   The id of the current user, bound to the access condition.
+     * @param pageable        Page request (page and size; the order is fixed).
+     * @return Page of archived tasks.
+     */
+    public Page<ArchivedTaskDTO> findPage(String accessCondition, Long currentUserId, Pageable pageable) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue(TaskAccessPolicy.CURRENT_USER_ID_PARAM, currentUserId)
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+
+        List<ArchivedTaskDTO> content = jdbcTemplate.query(
+                "SELECT t.id, t.title, t.description, t.status, t.priority, t.due_date, a.email AS assigned_to, " +
+                        "c.email AS created_by, t.created_at, t.updated_at, t.deleted_at, t.archived_at" + FROM +
+                        " WHERE " + accessCondition +
+                        " ORDER BY t.archived_at DESC, t.id DESC LIMIT :limit OFFSET :offset",
+                parameters, TaskArchiveRepository::toDTO);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks_archive WHERE " + accessCondition, parameters, Long.class));
+    }
+
+    private static ArchivedTaskDTO toDTO(ResultSet row, int rowNum) throws SQLException {
+        return ArchivedTaskDTO.builder()
+                .id(row.getLong("id"))
+                .title(row.getString("title"))
+                .description(row.getString("description"))
+                .status(STATUS_CONVERTER.convertToEntityAttribute(row.getShort("status")))
+                .priority(PRIORITY_CONVERTER.convertToEntityAttribute(row.getShort("priority")))
+                .dueDate(row.getObject("due_date", LocalDateTime.class))
+                .assignedTo(row.getString("assigned_to"))
+                .createdBy(row.getString("created_by"))
+                .createdAt(row.getObject("created_at", LocalDateTime.class))
+                .updatedAt(row.getObject("updated_at", LocalDateTime.class))
+                .deletedAt(row.getObject("deleted_at", LocalDateTime.class))
+                .archivedAt(row.getObject("archived_at", LocalDateTime.class))
+                .build();
+    }
+}
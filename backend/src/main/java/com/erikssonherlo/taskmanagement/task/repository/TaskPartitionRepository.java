@@ -0,0 +1,77 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads and extends the id range partitions of {@code tasks} (see V18).
+ * <p>
+ * Plain SQL against the PostgreSQL catalog; PostgreSQL only.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskPartitionRepository {
+
+    // The upper bound of the last partition, read from its "FOR VALUES FROM (...) TO ('<bound>')" definition
+    private static final String UPPER_BOUND =
+            "SELECT max(substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''(\\d+)''\\)')::BIGINT)" +
+            " FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid" +
+            " WHERE i.inhparent = 'tasks'::regclass";
+
+    // Advisory lock key of the partition creation ("tasks" in ASCII), shared by every instance
+    private static final long PARTITION_LOCK = 0x7461736b73L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return The first id not covered by any partition.
+     */
+    public long findUpperBound() {
+        return jdbcTemplate.queryForObject(UPPER_BOUND, Long.class);
+    }
+
+    /**
+     * @return The last value handed out by {@code tasks_id_seq}: ids below it may already be in use.
+     */
+    public long findLastReservedId() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM tasks_id_seq", Long.class);
+    }
+
+    /**
+     * Creates the partition holding the ids in [from, to), named {@code tasks_p<from>}, unless it already exists.
+     * <p>
+     * Every instance runs {@link com.erikssonherlo.taskmanagement.task.partition.TaskPartitionJob}, so the check and
+     * the creation run under a transaction-level advisory lock: a concurrent run waits for this one, then finds the
+     * partition attached and leaves it alone.
+     * <p>
+     * The table is created on its own and then attached: attaching locks {@code tasks} in a mode that still allows
+     * reads and writes, where creating it as a partition directly would block them. The new table is empty, so its
+     * indexes, constraints and foreign keys are created and checked at once.
+     *
+     * @param from First id of the partition.
+     * @param to   First id after the partition.
+     * @return true if the partition was created, false if it already existed.
+     */
+    @Transactional
+    public boolean createPartition(long from, long to) {
+        String partition = "tasks_p" + from;
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + PARTITION_LOCK + ")");
+
+        if (isAttached(partition)) {
+            return false;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " (LIKE tasks INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.execute("ALTER TABLE tasks ATTACH PARTITION " + partition +
+                " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+        return true;
+    }
+
+    private boolean isAttached(String partition) {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhparent = 'tasks'::regclass AND inhrelid = to_regclass(?))",
+                Boolean.class, partition);
+    }
+}
@@ -14,7 +14,7 @@ import java.util.List;
  * Provides methods to query tasks by assigned user, status, and priority.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
+public interface TaskRepository extends JpaRepository<TaskEntity, Long>, TaskRepositoryCustom {
 
     /**
      * Find all tasks assigned to a specific user.
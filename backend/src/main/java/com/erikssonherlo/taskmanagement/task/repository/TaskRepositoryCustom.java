@@ -0,0 +1,120 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.model.TaskCursor;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom task queries that cannot be expressed as derived or annotated queries.
+ * Rows are projected straight into TaskDTO (emails are joined from users by id),
+ * so no managed entities are created.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Find a page of tasks matching the given specification.
+     *
+     * @param spec Filters and access rules to apply.
+     * @param pageable Page request (page, size and sort).
+     * @return Page of TaskDTO objects.
+     */
+    Page<TaskDTO> findPage(Specification<TaskEntity> spec, Pageable pageable);
+
+    /**
+     * Find the tasks matching the given specification that come after the given cursor, ordered by (sortKey, id).
+     * Uses keyset pagination, so the cost does not grow with the scroll depth and no COUNT query is issued.
+     *
+     * @param spec Filters and access rules to apply.
+     * @param sortKey The sort key of the listing.
+     * @param after The position of the last task already returned, or null for the first slice.
+     * @param limit Maximum number of tasks to return.
+     * @return List of TaskDTO objects.
+     */
+    List<TaskDTO> findSliceAfter(Specification<TaskEntity> spec, TaskSortKey sortKey, TaskCursor after, int limit);
+
+    /**
+     * Stream all tasks matching the given specification, ordered by id.
+     * Rows are read from a database cursor in batches of fetchSize, so the whole result is never held in memory.
+     * Must be called inside a transaction, and the returned stream must be closed.
+     *
+     * @param spec Filters and access rules to apply.
+     * @param fetchSize Number of rows fetched from the database per round-trip.
+     * @return Stream of TaskDTO objects.
+     */
+    Stream<TaskDTO> streamAll(Specification<TaskEntity> spec, int fetchSize);
+
+    /**
+     * Persist the given tasks using JDBC batch inserts of batchSize rows.
+     * The persistence context is flushed and cleared after every batch, so the returned tasks are detached.
+     *
+     * @param tasks New tasks to insert.
+     * @param batchSize Number of rows per JDBC batch.
+     * @return The persisted tasks, with their generated ids.
+     */
+    List<TaskEntity> insertAll(List<TaskEntity> tasks, int batchSize);
+
+    /**
+     * Find a task by id, projected straight into a TaskDTO.
+     *
+     * @param id The id of the task.
+     * @return The task, or empty if it does not exist.
+     */
+    Optional<TaskDTO> findDTOById(Long id);
+
+    /**
+     * Apply the given changes to a task and read it back in a single statement: an UPDATE that only writes the
+     * changed columns and returns the updated row, with the emails joined from users.
+     * The access condition and the expected version are part of the WHERE clause, so a task the user cannot update,
+     * or that changed since it was read, is left untouched. The version is incremented on every update.
+     * Native SQL (data-modifying CTE); PostgreSQL only.
+     *
+     * @param id The id of the task.
+     * @param expectedVersion The version the client last read, or null to skip the version check.
+     * @param accessCondition SQL condition of the access rule, see TaskAccessPolicy#sqlCondition.
+     * @param currentUserId The id of the current user, bound to the access condition.
+     * @param changes New values by entity attribute name.
+     * @return The updated task, or empty if it was not updated.
+     */
+    Optional<TaskDTO> update(Long id, Long expectedVersion, String accessCondition, Long currentUserId, Map<String, Object> changes);
+
+    /**
+     * Check in a single query which of the given tasks exist and which of them match the given specification.
+     *
+     * @param ids Ids of the tasks to check.
+     * @param allowed Access rule to evaluate for every task.
+     * @return Map from the id of every existing task to whether it matches the rule. Missing tasks are absent.
+     */
+    Map<Long, Boolean> findAccess(Collection<Long> ids, Specification<TaskEntity> allowed);
+
+    /**
+     * Set the status of the given tasks in a single UPDATE statement.
+     * Tasks that do not match the specification are left untouched.
+     *
+     * @param ids Ids of the tasks to update.
+     * @param allowed Access rule the tasks must match.
+     * @param status The new status.
+     * @return Number of updated tasks.
+     */
+    int updateStatus(Collection<Long> ids, Specification<TaskEntity> allowed, TaskStatus status);
+
+    /**
+     * Soft delete the given tasks in a single UPDATE statement, the set-based form of the entity's @SQLDelete.
+     * Tasks that do not match the specification are left untouched.
+     *
+     * @param ids Ids of the tasks to delete.
+     * @param allowed Access rule the tasks must match.
+     * @return Number of deleted tasks.
+     */
+    int softDelete(Collection<Long> ids, Specification<TaskEntity> allowed);
+}
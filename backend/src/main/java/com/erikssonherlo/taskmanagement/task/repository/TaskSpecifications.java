@@ -0,0 +1,23 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Optional filters for task queries. A null value means "no filter".
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<TaskEntity> hasStatus(TaskStatus status) {
+        return (task, query, cb) -> status == null ? null : cb.equal(task.get("status"), status);
+    }
+
+    public static Specification<TaskEntity> hasPriority(TaskPriority priority) {
+        return (task, query, cb) -> priority == null ? null : cb.equal(task.get("priority"), priority);
+    }
+}
@@ -0,0 +1,291 @@
+package com.erikssonherlo.taskmanagement.task.repository.impl;
+
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnum;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.entity.TaskPriorityConverter;
+import com.erikssonherlo.taskmanagement.task.entity.TaskStatusConverter;
+import com.erikssonherlo.taskmanagement.task.model.TaskCursor;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.task.repository.TaskRepositoryCustom;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final TaskStatusConverter STATUS_CONVERTER = new TaskStatusConverter();
+    private static final TaskPriorityConverter PRIORITY_CONVERTER = new TaskPriorityConverter();
+
+    // The columns of the attributes a task update can change
+    private static final Map<String, String> UPDATABLE_COLUMNS = Map.of(
+            "title", "title",
+            "description", "description",
+            "status", "status",
+            "priority", "priority",
+            "dueDate", "due_date");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TaskDTO> findPage(Specification<TaskEntity> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+
+        query.select(toDTO(task, cb))
+                .where(spec.toPredicate(task, query, cb))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), task, cb));
+
+        List<TaskDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<TaskDTO> findSliceAfter(Specification<TaskEntity> spec, TaskSortKey sortKey, TaskCursor after, int limit) {
+        if (after != null) {
+            spec = spec.and(after(sortKey, after));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+
+        query.select(toDTO(task, cb))
+                .where(spec.toPredicate(task, query, cb))
+                .orderBy(cb.asc(task.get(sortKey.getAttribute())), cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TaskDTO> streamAll(Specification<TaskEntity> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+
+        query.select(toDTO(task, cb))
+                .where(spec.toPredicate(task, query, cb))
+                .orderBy(cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<TaskEntity> insertAll(List<TaskEntity> tasks, int batchSize) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                entityManager.persist(tasks.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+
+        return tasks;
+    }
+
+    @Override
+    public Optional<TaskDTO> findDTOById(Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+
+        query.select(toDTO(task, cb))
+                .where(cb.equal(task.get("id"), id));
+
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    @Override
+    public Optional<TaskDTO> update(Long id, Long expectedVersion, String accessCondition, Long currentUserId, Map<String, Object> changes) {
+        StringBuilder assignments = new StringBuilder();
+        Map<String, Object> parameters = new HashMap<>();
+        changes.forEach((attribute, value) -> {
+            String column = UPDATABLE_COLUMNS.get(attribute);
+            if (column == null) {
+                throw new IllegalArgumentException("Task attribute '" + attribute + "' cannot be updated.");
+            }
+            assignments.append(column).append(" = :").append(column).append(", ");
+            parameters.put(column, value instanceof CodedEnum coded ? (short) coded.getCode() : value);
+        });
+
+        String sql = "WITH updated AS (" +
+                " UPDATE tasks SET " + assignments + "updated_at = :updatedAt, version = version + 1" +
+                " WHERE id = :id AND deleted_at IS NULL AND " + accessCondition +
+                (expectedVersion != null ? " AND version = :expectedVersion" : "") +
+                " RETURNING id, title, description, status, priority, due_date, assigned_to_id, created_by_id," +
+                " created_at, updated_at, version)" +
+                " SELECT t.id, t.title, t.description, t.status, t.priority, t.due_date, a.email AS assigned_to," +
+                " c.email AS created_by, t.created_at, t.updated_at, t.version FROM updated t" +
+                " LEFT JOIN users a ON a.id = t.assigned_to_id" +
+                " LEFT JOIN users c ON c.id = t.created_by_id";
+
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        parameters.forEach(query::setParameter);
+        query.setParameter("updatedAt", LocalDateTime.now())
+                .setParameter("id", id)
+                .setParameter(TaskAccessPolicy.CURRENT_USER_ID_PARAM, currentUserId);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        query.addScalar("id", Long.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("status", Short.class)
+                .addScalar("priority", Short.class)
+                .addScalar("due_date", LocalDateTime.class)
+                .addScalar("assigned_to", String.class)
+                .addScalar("created_by", String.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("version", Long.class);
+
+        return query.getResultStream().findFirst().map(row -> new TaskDTO(
+                (Long) row[0], (String) row[1], (String) row[2],
+                STATUS_CONVERTER.convertToEntityAttribute((Short) row[3]),
+                PRIORITY_CONVERTER.convertToEntityAttribute((Short) row[4]),
+                (LocalDateTime) row[5], (String) row[6], (String) row[7],
+                (LocalDateTime) row[8], (LocalDateTime) row[9], (Long) row[10]));
+    }
+
+    @Override
+    public Map<Long, Boolean> findAccess(Collection<Long> ids, Specification<TaskEntity> allowed) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+
+        Expression<Boolean> isAllowed = cb.<Boolean>selectCase()
+                .when(allowed.toPredicate(task, query, cb), true)
+                .otherwise(false);
+        query.multiselect(task.get("id"), isAllowed)
+                .where(task.get("id").in(ids));
+
+        Map<Long, Boolean> access = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            access.put(row.get(0, Long.class), row.get(1, Boolean.class));
+        }
+        return access;
+    }
+
+    @Override
+    public int updateStatus(Collection<Long> ids, Specification<TaskEntity> allowed, TaskStatus status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<TaskEntity> update = cb.createCriteriaUpdate(TaskEntity.class);
+        Root<TaskEntity> task = update.from(TaskEntity.class);
+
+        update.set(task.<TaskStatus>get("status"), status)
+                .set(task.<LocalDateTime>get("updatedAt"), LocalDateTime.now())
+                .set(version(task), cb.sum(version(task), 1L))
+                .where(mutable(task, cb, ids, allowed));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int softDelete(Collection<Long> ids, Specification<TaskEntity> allowed) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<TaskEntity> update = cb.createCriteriaUpdate(TaskEntity.class);
+        Root<TaskEntity> task = update.from(TaskEntity.class);
+
+        update.set(task.<LocalDateTime>get("deletedAt"), LocalDateTime.now())
+                .set(version(task), cb.sum(version(task), 1L))
+                .where(mutable(task, cb, ids, allowed));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private long count(Specification<TaskEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+
+        query.select(cb.count(task))
+                .where(spec.toPredicate(task, query, cb));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Bulk updates bypass the entity's @Where, so live rows are filtered explicitly.
+    // The access rules only read columns of the task row (the user ids), so they render without a query or joins.
+    private static Predicate mutable(Root<TaskEntity> task, CriteriaBuilder cb, Collection<Long> ids, Specification<TaskEntity> allowed) {
+        return cb.and(
+                task.get("id").in(ids),
+                cb.isNull(task.get("deletedAt")),
+                allowed.toPredicate(task, null, cb));
+    }
+
+    private static Path<Long> version(Root<TaskEntity> task) {
+        return task.get("version");
+    }
+
+    private static Specification<TaskEntity> after(TaskSortKey sortKey, TaskCursor cursor) {
+        return (task, query, cb) -> {
+            Path<LocalDateTime> key = task.get(sortKey.getAttribute());
+            Path<Long> id = task.get("id");
+            // (key, id) > (value, id) written so that "key >= value" can seek the (key, id) index
+            return cb.and(
+                    cb.greaterThanOrEqualTo(key, cursor.value()),
+                    cb.or(cb.greaterThan(key, cursor.value()), cb.greaterThan(id, cursor.id())));
+        };
+    }
+
+    // Tasks only hold the user ids, so the emails come from two joins on the users primary key.
+    // The assignee join is a left join so unassigned tasks are not dropped.
+    private static CompoundSelection<TaskDTO> toDTO(Root<TaskEntity> task, CriteriaBuilder cb) {
+        Join<TaskEntity, UserEntity> assignedTo = task.join("assignedTo", JoinType.LEFT);
+        Join<TaskEntity, UserEntity> createdBy = task.join("createdBy", JoinType.LEFT);
+        return cb.construct(TaskDTO.class,
+                task.get("id"), task.get("title"), task.get("description"), task.get("status"), task.get("priority"),
+                task.get("dueDate"), assignedTo.get("email"), createdBy.get("email"),
+                task.get("createdAt"), task.get("updatedAt"), task.get("version"));
+    }
+}
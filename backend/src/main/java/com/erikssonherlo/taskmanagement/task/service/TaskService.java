@@ -1,19 +1,36 @@
 package com.erikssonherlo.taskmanagement.task.service;
 
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.ArchivedTaskDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkDeleteDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkStatusUpdateDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkTaskResultDTO;
 import com.erikssonherlo.taskmanagement.task.dto.CreateTaskForOtherDTO;
 import com.erikssonherlo.taskmanagement.task.dto.CreateTaskForSelfDTO;
 import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.dto.TaskScrollDTO;
 import com.erikssonherlo.taskmanagement.task.dto.UpdateTaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskExportFormat;
 import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
 import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
 public interface TaskService {
-    TaskDTO createTaskForSelf(CreateTaskForSelfDTO dto, String jwt);
-    TaskDTO createTaskForOther(CreateTaskForOtherDTO dto, String jwt);
-    List<TaskDTO> getAllTasks(String jwt, Optional<TaskStatus> status, Optional<TaskPriority> priority);
-    TaskDTO updateTask(Long taskId, UpdateTaskDTO dto, String jwt);
-    void deleteTask(Long taskId, String jwt);
+    TaskDTO createTaskForSelf(CreateTaskForSelfDTO dto, AuthenticatedUser currentUser);
+    TaskDTO createTaskForOther(CreateTaskForOtherDTO dto, AuthenticatedUser currentUser);
+    List<BulkTaskResultDTO> createTasksForOthers(List<CreateTaskForOtherDTO> dtos, AuthenticatedUser currentUser);
+    Page<TaskDTO> getAllTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority, int page, int size);
+    Page<ArchivedTaskDTO> getArchivedTasks(AuthenticatedUser currentUser, int page, int size);
+    TaskScrollDTO scrollTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority, TaskSortKey sortKey, String cursor, int size);
+    void exportTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority, TaskExportFormat format, OutputStream outputStream) throws IOException;
+    TaskDTO updateTask(Long taskId, UpdateTaskDTO dto, AuthenticatedUser currentUser);
+    void deleteTask(Long taskId, AuthenticatedUser currentUser);
+    int updateTasksStatus(BulkStatusUpdateDTO dto, AuthenticatedUser currentUser);
+    int deleteTasks(BulkDeleteDTO dto, AuthenticatedUser currentUser);
 }
@@ -2,27 +2,62 @@ package com.erikssonherlo.taskmanagement.task.service.impl;
 
 import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceNotFoundException;
-import com.erikssonherlo.taskmanagement.common.security.JWTService;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.ArchivedTaskDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkDeleteDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkStatusUpdateDTO;
+import com.erikssonherlo.taskmanagement.task.dto.BulkTaskResultDTO;
 import com.erikssonherlo.taskmanagement.task.dto.CreateTaskForOtherDTO;
 import com.erikssonherlo.taskmanagement.task.dto.CreateTaskForSelfDTO;
 import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.dto.TaskScrollDTO;
 import com.erikssonherlo.taskmanagement.task.dto.UpdateTaskDTO;
 import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.export.TaskExportWriter;
 import com.erikssonherlo.taskmanagement.task.mapper.TaskMapper;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.task.model.TaskCursor;
+import com.erikssonherlo.taskmanagement.task.model.TaskExportFormat;
 import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
 import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
 import com.erikssonherlo.taskmanagement.task.repository.TaskRepository;
+import com.erikssonherlo.taskmanagement.task.repository.TaskArchiveRepository;
+import com.erikssonherlo.taskmanagement.task.repository.TaskSpecifications;
 import com.erikssonherlo.taskmanagement.task.service.TaskService;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import com.erikssonherlo.taskmanagement.user.model.Role;
 import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 /**
  * Implementation of the TaskService interface.
  * Provides methods for creating, retrieving, updating, and deleting tasks.
@@ -31,18 +66,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+    private static final int MAX_BULK_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int BULK_BATCH_SIZE = 50;
+
     private final TaskRepository taskRepository;
+    private final TaskArchiveRepository taskArchiveRepository;
     private final UserRepository userRepository;
     private final TaskMapper taskMapper;
-    private final JWTService jwtService;
+    private final TaskAccessPolicy taskAccessPolicy;
+    private final TaskExportWriter taskExportWriter;
+    private final Validator validator;
+
+    @Value("${task.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     @Override
-    public TaskDTO createTaskForSelf(CreateTaskForSelfDTO dto, String jwt) {
-        String currentUserEmail = jwtService.getUsernameFromToken(jwt);
+    public TaskDTO createTaskForSelf(CreateTaskForSelfDTO dto, AuthenticatedUser currentUser) {
+        String currentUserEmail = currentUser.email();
 
         var user = userRepository.findByEmail(currentUserEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserEmail));
 
+        // The cached user is detached; its generated id tells Hibernate it exists, so only the id is written to the FK
         var task = TaskEntity.builder()
                 .title(dto.title())
                 .description(dto.description())
@@ -57,9 +103,9 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public TaskDTO createTaskForOther(CreateTaskForOtherDTO dto, String jwt) {
-        String currentUserEmail = jwtService.getUsernameFromToken(jwt);
-        Role currentUserRole = jwtService.getRoleFromToken(jwt);
+    public TaskDTO createTaskForOther(CreateTaskForOtherDTO dto, AuthenticatedUser currentUser) {
+        String currentUserEmail = currentUser.email();
+        Role currentUserRole = currentUser.role();
 
         if (currentUserRole == null) {
             throw new BadRequestException("Role not found in JWT token.");
@@ -89,104 +135,283 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public List<TaskDTO> getAllTasks(String jwt, Optional<TaskStatus> status, Optional<TaskPriority> priority) {
-        String currentUserEmail = jwtService.getUsernameFromToken(jwt);
-        Role currentUserRole = jwtService.getRoleFromToken(jwt);
-
-        var userAssignedTo = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserEmail));
+    @Transactional
+    public List<BulkTaskResultDTO> createTasksForOthers(List<CreateTaskForOtherDTO> dtos, AuthenticatedUser currentUser) {
+        String currentUserEmail = currentUser.email();
+        Role currentUserRole = currentUser.role();
 
+        if (currentUserRole == null) {
+            throw new BadRequestException("Role not found in JWT token.");
+        }
         if (currentUserRole == Role.MEMBER) {
-            // MEMBER: only can see their own tasks
-            return taskRepository
-                    .findAllByAssignedTo(userAssignedTo)
-                    .stream()
-                    .filter(task -> status.map(s -> task.getStatus() == s).orElse(true))
-                    .filter(task -> priority.map(p -> task.getPriority() == p).orElse(true))
-                    .map(taskMapper::toDTO)
-                    .collect(Collectors.toList());
-        }
-
-        // ADMIN o MANAGER
-        return taskRepository.findAll().stream()
-                .filter(task -> {
-                    // Filter out tasks that are self-managed by another user
-                    // (i.e., created by the same user and assigned to themselves)
-                    boolean isAutomanagedByAnother = task.getCreatedBy().getEmail().equals(task.getAssignedTo().getEmail())
-                            && !task.getCreatedBy().getEmail().equals(currentUserEmail);
-                    return !isAutomanagedByAnother;
-                })
-                .filter(task -> status.map(s -> task.getStatus() == s).orElse(true))
-                .filter(task -> priority.map(p -> task.getPriority() == p).orElse(true))
-                .map(taskMapper::toDTO)
-                .collect(Collectors.toList());
+            throw new AccessDeniedException("Members are not allowed to assign tasks to others.");
+        }
+        if (dtos == null || dtos.isEmpty()) {
+            throw new BadRequestException("At least one task is required.");
+        }
+        if (dtos.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("A bulk request can contain at most " + MAX_BULK_SIZE + " tasks.");
+        }
+
+        // Resolve the creator and every assignee in a single query
+        Set<String> emails = new HashSet<>();
+        emails.add(currentUserEmail);
+        dtos.stream()
+                .filter(dto -> dto != null && dto.assignedTo() != null)
+                .forEach(dto -> emails.add(dto.assignedTo()));
+        Map<String, UserEntity> users = userRepository.findAllByEmailIn(emails).stream()
+                .collect(Collectors.toMap(UserEntity::getEmail, Function.identity()));
+
+        UserEntity user = users.get(currentUserEmail);
+        if (user == null) {
+            throw new ResourceNotFoundException("User", "email", currentUserEmail);
+        }
+
+        BulkTaskResultDTO[] results = new BulkTaskResultDTO[dtos.size()];
+        List<TaskEntity> tasks = new ArrayList<>();
+        List<Integer> taskIndexes = new ArrayList<>();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            CreateTaskForOtherDTO dto = dtos.get(i);
+            String error = validateBulkItem(dto, users);
+            if (error != null) {
+                results[i] = BulkTaskResultDTO.builder().index(i).success(false).error(error).build();
+                continue;
+            }
+
+            tasks.add(TaskEntity.builder()
+                    .title(dto.title())
+                    .description(dto.description())
+                    .priority(dto.priority())
+                    .status(dto.status())
+                    .dueDate(dto.dueDate())
+                    .createdBy(user)
+                    .assignedTo(users.get(dto.assignedTo()))
+                    .build());
+            taskIndexes.add(i);
+        }
+
+        List<TaskEntity> saved = taskRepository.insertAll(tasks, BULK_BATCH_SIZE);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = taskIndexes.get(i);
+            results[index] = BulkTaskResultDTO.builder().index(index).success(true).task(taskMapper.toDTO(saved.get(i))).build();
+        }
+
+        return Arrays.asList(results);
     }
 
     @Override
-    public TaskDTO updateTask(Long taskId, UpdateTaskDTO dto, String jwt) {
-        String currentUserEmail = jwtService.getUsernameFromToken(jwt);
-        Role currentUserRole = jwtService.getRoleFromToken(jwt);
+    @Transactional(readOnly = true)
+    public Page<TaskDTO> getAllTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority, int page, int size) {
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
 
-        TaskEntity task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        // id breaks ties between tasks created at the same time, so pages never overlap; matches idx_task_created_at_id
+        Pageable pageable = pageRequest(page, size, Sort.by("createdAt").descending().and(Sort.by("id").descending()));
+
+        return taskRepository.findPage(visibleTasks(currentUserId, currentUserRole, status, priority), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ArchivedTaskDTO> getArchivedTasks(AuthenticatedUser currentUser, int page, int size) {
+        // The archive has the same creator and assignee columns, so the VIEW rule applies unchanged
+        String accessCondition = taskAccessPolicy.sqlCondition(TaskAction.VIEW, currentUser.role());
+
+        return taskArchiveRepository.findPage(accessCondition, currentUser.id(), pageRequest(page, size, Sort.unsorted()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskScrollDTO scrollTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority, TaskSortKey sortKey, String cursor, int size) {
+        // Also keeps size + 1 (the extra row below) from overflowing
+        checkPageSize(size);
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
+
+        TaskCursor after = null;
+        if (cursor != null) {
+            after = TaskCursor.decode(cursor);
+            if (after.sortKey() != sortKey) {
+                throw new BadRequestException("Cursor does not match the requested sort.");
+            }
+        }
+
+        // Fetch one extra row to know whether there is a next slice without running a COUNT query
+        List<TaskDTO> tasks = taskRepository.findSliceAfter(
+                visibleTasks(currentUserId, currentUserRole, status, priority), sortKey, after, size + 1);
+
+        boolean hasNext = tasks.size() > size;
+        List<TaskDTO> slice = hasNext ? tasks.subList(0, size) : tasks;
+
+        String nextCursor = null;
+        if (hasNext) {
+            TaskDTO last = slice.get(slice.size() - 1);
+            LocalDateTime value = sortKey == TaskSortKey.DUE_DATE ? last.dueDate() : last.updatedAt();
+            nextCursor = new TaskCursor(sortKey, value, last.id()).encode();
+        }
+
+        return new TaskScrollDTO(slice, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority, TaskExportFormat format, OutputStream outputStream) throws IOException {
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
+
+        try (Stream<TaskDTO> tasks = taskRepository.streamAll(
+                visibleTasks(currentUserId, currentUserRole, status, priority), exportFetchSize)) {
+            taskExportWriter.write(tasks, format, outputStream);
+        }
+    }
 
-        boolean isOwnTask = task.getAssignedTo().getEmail().equals(currentUserEmail);
-        boolean isAutomanaged = task.getAssignedTo().getEmail().equals(task.getCreatedBy().getEmail());
+    @Override
+    @Transactional
+    public TaskDTO updateTask(Long taskId, UpdateTaskDTO dto, AuthenticatedUser currentUser) {
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
 
+        Map<String, Object> changes = new LinkedHashMap<>();
         if (currentUserRole == Role.MEMBER) {
             // MEMBER solo puede actualizar status de sus propias tareas asignadas
-            if (!isOwnTask) {
-                throw new AccessDeniedException("You can only update your own assigned tasks.");
-            }
             if (dto.status() == null) {
                 throw new BadRequestException("Status is required for status update.");
             }
-            task.setStatus(dto.status());
+            changes.put("status", dto.status());
         } else {
-            // ADMIN / MANAGER no pueden modificar tareas autogestionadas ajenas
-            if (isAutomanaged && !task.getCreatedBy().getEmail().equals(currentUserEmail)) {
-                throw new AccessDeniedException("Cannot modify self-managed task of another user.");
-            }
-
             // Update only provided fields (PATCH)
-            if (dto.title() != null) task.setTitle(dto.title());
-            if (dto.description() != null) task.setDescription(dto.description());
-            if (dto.priority() != null) task.setPriority(dto.priority());
-            if (dto.status() != null) task.setStatus(dto.status());
-            if (dto.dueDate() != null) task.setDueDate(dto.dueDate());
+            if (dto.title() != null) changes.put("title", dto.title());
+            if (dto.description() != null) changes.put("description", dto.description());
+            if (dto.priority() != null) changes.put("priority", dto.priority());
+            if (dto.status() != null) changes.put("status", dto.status());
+            if (dto.dueDate() != null) changes.put("dueDate", dto.dueDate());
         }
 
-        return taskMapper.toDTO(taskRepository.save(task));
+        // Permissions and the version check are part of the UPDATE, which also returns the updated task: one statement,
+        // and the task is never loaded
+        String accessCondition = taskAccessPolicy.sqlCondition(TaskAction.UPDATE, currentUserRole);
+        return taskRepository.update(taskId, dto.version(), accessCondition, currentUserId, changes)
+                .orElseThrow(() -> updateRejected(taskId, currentUserId, currentUserRole));
     }
 
     @Override
-    public void deleteTask(Long taskId, String jwt) {
-        String currentUserEmail = jwtService.getUsernameFromToken(jwt);
-        Role currentUserRole = jwtService.getRoleFromToken(jwt);
+    public void deleteTask(Long taskId, AuthenticatedUser currentUser) {
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
 
         TaskEntity task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
 
-        boolean isOwnTask = task.getAssignedTo().getEmail().equals(currentUserEmail);
-        boolean isAutomanaged = task.getAssignedTo().getEmail().equals(task.getCreatedBy().getEmail());
+        taskAccessPolicy.check(TaskAction.DELETE, task, currentUserId, currentUserRole);
 
-        if (currentUserRole == Role.MEMBER) {
-            // MEMBER: only can delete their own self-managed tasks
-            if (!isOwnTask || !isAutomanaged) {
-                throw new AccessDeniedException("You can only delete your own self-managed tasks.");
+        taskRepository.delete(task);
+    }
+
+    @Override
+    @Transactional
+    public int updateTasksStatus(BulkStatusUpdateDTO dto, AuthenticatedUser currentUser) {
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
+
+        // Only the status changes, which every role may do on the tasks it is allowed to update
+        Set<Long> taskIds = checkBulkAccess(TaskAction.UPDATE, dto.taskIds(), currentUserId, currentUserRole);
+
+        return taskRepository.updateStatus(taskIds,
+                taskAccessPolicy.specification(TaskAction.UPDATE, currentUserId, currentUserRole), dto.status());
+    }
+
+    @Override
+    @Transactional
+    public int deleteTasks(BulkDeleteDTO dto, AuthenticatedUser currentUser) {
+        Long currentUserId = currentUser.id();
+        Role currentUserRole = currentUser.role();
+
+        Set<Long> taskIds = checkBulkAccess(TaskAction.DELETE, dto.taskIds(), currentUserId, currentUserRole);
+
+        return taskRepository.softDelete(taskIds,
+                taskAccessPolicy.specification(TaskAction.DELETE, currentUserId, currentUserRole));
+    }
+
+    /**
+     * Explains why a conditional update matched no row: the task does not exist, the user may not update it,
+     * or it was changed since the client read it.
+     */
+    private RuntimeException updateRejected(Long taskId, Long userId, Role role) {
+        Specification<TaskEntity> allowed = taskAccessPolicy.specification(TaskAction.UPDATE, userId, role);
+        Boolean isAllowed = taskRepository.findAccess(List.of(taskId), allowed).get(taskId);
+        if (isAllowed == null) {
+            return new ResourceNotFoundException("Task", "id", taskId);
+        }
+        if (!isAllowed) {
+            return new AccessDeniedException(taskAccessPolicy.deniedMessage(TaskAction.UPDATE, role));
+        }
+        return new ObjectOptimisticLockingFailureException(TaskEntity.class, taskId);
+    }
+
+    /**
+     * Checks with a single query that every task exists and that the user may act on all of them.
+     * The whole operation is rejected if any task fails the check.
+     */
+    private Set<Long> checkBulkAccess(TaskAction action, List<Long> ids, Long userId, Role role) {
+        Set<Long> taskIds = new LinkedHashSet<>(ids);
+        if (taskIds.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("A bulk request can contain at most " + MAX_BULK_SIZE + " tasks.");
+        }
+
+        Map<Long, Boolean> access = taskRepository.findAccess(taskIds, taskAccessPolicy.specification(action, userId, role));
+        for (Long taskId : taskIds) {
+            Boolean allowed = access.get(taskId);
+            if (allowed == null) {
+                throw new ResourceNotFoundException("Task", "id", taskId);
             }
-        } else {
-            // ADMIN / MANAGER cannot delete self-managed tasks of others
-            if (isAutomanaged && !task.getCreatedBy().getEmail().equals(currentUserEmail)) {
-                throw new AccessDeniedException("Cannot delete self-managed task of another user.");
+            if (!allowed) {
+                throw new AccessDeniedException(taskAccessPolicy.deniedMessage(action, role));
             }
         }
-
-        taskRepository.delete(task);
+        return taskIds;
     }
 
+    private String validateBulkItem(CreateTaskForOtherDTO dto, Map<String, UserEntity> users) {
+        if (dto == null) {
+            return "Task is required.";
+        }
+
+        Set<ConstraintViolation<CreateTaskForOtherDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
 
+        if (!users.containsKey(dto.assignedTo())) {
+            return new ResourceNotFoundException("User", "email", dto.assignedTo()).getMessage();
+        }
+        return null;
+    }
 
+    private Specification<TaskEntity> visibleTasks(Long userId, Role role, Optional<TaskStatus> status, Optional<TaskPriority> priority) {
+        return taskAccessPolicy.specification(TaskAction.VIEW, userId, role)
+                .and(TaskSpecifications.hasStatus(status.orElse(null)))
+                .and(TaskSpecifications.hasPriority(priority.orElse(null)));
+    }
 
+    /**
+     * Builds a page request, rejecting negative pages and sizes outside 1..MAX_PAGE_SIZE so a single request cannot
+     * load the whole table.
+     */
+    private static Pageable pageRequest(int page, int size, Sort sort) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative.");
+        }
+        checkPageSize(size);
+        return PageRequest.of(page, size, sort);
+    }
 
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package com.erikssonherlo.taskmanagement.user.entity;
+
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnumConverter;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link Role} in the SMALLINT column users.role as its code.
+ */
+@Converter
+public class RoleConverter extends CodedEnumConverter<Role> {
+
+    public RoleConverter() {
+        super(Role.class);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 import org.springframework.security.core.GrantedAuthority;
@@ -23,12 +24,18 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
-@SQLDelete(sql = "UPDATE user SET deleted_at = NOW() WHERE email = ?")
+@SQLDelete(sql = "UPDATE users SET deleted_at = NOW() WHERE id = ?")
 @Where(clause = "deleted_at IS NULL")
-
+@BatchSize(size = 100) // Uninitialized proxies (e.g. task creators/assignees) are loaded in batches, not one by one
 public class UserEntity implements UserDetails {
 
+    // Tasks reference users by this id instead of the email: a BIGINT keeps the FK columns and their indexes narrow.
+    // Pooled like the task ids (see TaskEntity), so new users get an id without a round trip per user.
     @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
+    private Long id;
+
     @Column(name = "email", nullable = false, unique = true)
     private String email;
 
@@ -41,7 +48,7 @@ public class UserEntity implements UserDetails {
     @Column(name = "password", nullable = true)
     private String password;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = RoleConverter.class)
     @Column(name = "role", nullable = false)
     private Role role;
 
@@ -1,7 +1,16 @@
 package com.erikssonherlo.taskmanagement.user.model;
 
-public enum Role {
-    ADMIN,
-    MANAGER,
-    MEMBER
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum Role implements CodedEnum {
+    ADMIN(0),
+    MANAGER(1),
+    MEMBER(2);
+
+    // Stored in users.role (see RoleConverter)
+    private final int code;
 }
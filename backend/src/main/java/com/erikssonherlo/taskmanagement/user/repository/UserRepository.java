@@ -1,19 +1,30 @@
 package com.erikssonherlo.taskmanagement.user.repository;
 
+import com.erikssonherlo.taskmanagement.common.config.CacheConfiguration;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import com.erikssonherlo.taskmanagement.user.model.Role;
 import com.erikssonherlo.taskmanagement.user.model.User;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, String> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserRepositoryCustom {
+    // Returns a cached, detached entity: load with findUncachedByEmail before modifying a user
+    @Cacheable(cacheNames = CacheConfiguration.USERS_BY_EMAIL, unless = "#result == null")
     Optional<UserEntity> findByEmail(String email);
     Page<UserEntity> findAllByRole(Role role, Pageable pageable);
     boolean existsByEmail(String email);
+    List<UserEntity> findAllByEmailIn(Collection<String> emails);
+
+    @Query("SELECT u FROM UserEntity u WHERE u.email = :email")
+    Optional<UserEntity> findUncachedByEmail(@Param("email") String email);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.erikssonherlo.taskmanagement.user.repository;
+
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+
+/**
+ * Custom user statements that cannot be expressed as derived or annotated queries.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts the user unless the email is already taken, including by a deleted user, in a single statement.
+     * The id is taken from the users sequence before the INSERT, so the caller knows it without reading the row back.
+     *
+     * @param user The user to insert. Its id is set when the user is inserted.
+     * @return 1 if the user was inserted, 0 if the email was taken.
+     */
+    int insertIfAbsent(UserEntity user);
+}
@@ -0,0 +1,54 @@
+package com.erikssonherlo.taskmanagement.user.repository.impl;
+
+import com.erikssonherlo.taskmanagement.user.entity.RoleConverter;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.repository.UserRepositoryCustom;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.transaction.annotation.Transactional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // email and id are the only unique keys of users, and the id is new, so any conflict is on the email
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO users (id, email, first_name, last_name, password, role, created_at, updated_at) " +
+            "VALUES (:id, :email, :firstName, :lastName, :password, :role, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT DO NOTHING";
+
+    // Native queries bypass the attribute converters
+    private static final RoleConverter ROLE_CONVERTER = new RoleConverter();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int insertIfAbsent(UserEntity user) {
+        Long id = nextId(user);
+
+        int inserted = entityManager.createNativeQuery(INSERT_IF_ABSENT)
+                .setParameter("id", id)
+                .setParameter("email", user.getEmail())
+                .setParameter("firstName", user.getFirstName())
+                .setParameter("lastName", user.getLastName())
+                .setParameter("password", user.getPassword())
+                .setParameter("role", ROLE_CONVERTER.convertToDatabaseColumn(user.getRole()))
+                .executeUpdate();
+
+        if (inserted > 0) {
+            user.setId(id);
+        }
+        return inserted;
+    }
+
+    // Same pooled generator as persist(), so most ids come from memory instead of a nextval per user
+    private Long nextId(UserEntity user) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(UserEntity.class)
+                .getGenerator();
+        return (Long) generator.generate(session, user);
+    }
+}
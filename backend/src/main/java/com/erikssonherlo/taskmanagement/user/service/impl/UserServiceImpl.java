@@ -1,8 +1,10 @@
 package com.erikssonherlo.taskmanagement.user.service.impl;
 
+import com.erikssonherlo.taskmanagement.common.config.CacheConfiguration;
 import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceAlreadyExistsException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceNotFoundException;
+import com.erikssonherlo.taskmanagement.common.security.TokenVersionRegistry;
 import com.erikssonherlo.taskmanagement.user.dto.UserDTO;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import com.erikssonherlo.taskmanagement.user.mapper.UserMapper;
@@ -10,6 +12,7 @@ import com.erikssonherlo.taskmanagement.user.model.Role;
 import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
 import com.erikssonherlo.taskmanagement.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,8 +31,10 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfiguration.USERS_BY_EMAIL, key = "#userDTO.email()")
     public UserDTO createUser(UserDTO userDTO) {
         if (userDTO.email() == null || userDTO.email().isBlank()) {
             throw new BadRequestException("Email is required to create a user.");
@@ -100,10 +105,17 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfiguration.USERS_BY_EMAIL, key = "#email")
     public UserDTO updateUser(String email, UserDTO userDTO) {
-        UserEntity entity = userRepository.findByEmail(email)
+        // Not the cached findByEmail: the entity is modified below
+        UserEntity entity = userRepository.findUncachedByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
+        // Tokens carry the role, so they are revoked when it changes
+        if (entity.getRole() != userDTO.role()) {
+            tokenVersionRegistry.revoke(email);
+        }
+
         entity.setFirstName(userDTO.firstName());
         entity.setLastName(userDTO.lastName());
         entity.setRole(userDTO.role());
@@ -112,8 +124,10 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfiguration.USERS_BY_EMAIL, key = "#email")
     public void deleteUser(String email) {
-        UserEntity entity = userRepository.findByEmail(email)
+        // Not the cached findByEmail: the entity is modified below
+        UserEntity entity = userRepository.findUncachedByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
         if (entity.getDeletedAt() != null) {
@@ -122,6 +136,7 @@ public class UserServiceImpl implements UserService {
 
         entity.setDeletedAt(java.time.LocalDateTime.now());
         userRepository.save(entity);
+        tokenVersionRegistry.revoke(email);
     }
 
 }
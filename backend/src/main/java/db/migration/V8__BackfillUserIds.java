@@ -0,0 +1,96 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Numeric user ids (2/5): backfill.
+ * <p>
+ * Fills {@code users.id} and the {@code tasks} id columns added by V7 in small batches. The migration runs outside
+ * a transaction, so each batch commits on its own: rows are locked only for the duration of their batch and the
+ * application keeps serving reads and writes meanwhile. Rows written during the backfill get their ids from the
+ * column default (users) and the sync trigger (tasks). Running it again only fills the rows still missing an id.
+ * <p>
+ * It ends by adding and validating CHECK constraints proving that no id is missing, which lets V10 set the columns
+ * NOT NULL without scanning the tables while holding an exclusive lock.
+ */
+public class V8__BackfillUserIds extends BaseJavaMigration {
+
+    private static final int USER_BATCH_SIZE = 1_000;
+    private static final int TASK_BATCH_SIZE = 5_000;
+
+    private static final String BACKFILL_USERS =
+            "UPDATE users SET id = nextval('users_id_seq') " +
+            "WHERE email IN (SELECT email FROM users WHERE id IS NULL LIMIT ?)";
+
+    // Tasks are walked in ranges of their primary key, so each batch is an index range scan
+    private static final String BACKFILL_TASKS =
+            "UPDATE tasks t SET " +
+            "created_by_id = (SELECT u.id FROM users u WHERE u.email = t.created_by), " +
+            "assigned_to_id = (SELECT u.id FROM users u WHERE u.email = t.assigned_to) " +
+            "WHERE t.id > ? AND t.id <= ? AND t.created_by_id IS NULL";
+
+    private static final String[] CONSTRAINTS = {
+            "ALTER TABLE users ADD CONSTRAINT users_id_not_null CHECK (id IS NOT NULL) NOT VALID",
+            "ALTER TABLE users VALIDATE CONSTRAINT users_id_not_null",
+            "ALTER TABLE tasks ADD CONSTRAINT tasks_created_by_id_not_null CHECK (created_by_id IS NOT NULL) NOT VALID",
+            "ALTER TABLE tasks VALIDATE CONSTRAINT tasks_created_by_id_not_null",
+            // Every assignment survives the switch: an assignee email has an assignee id
+            "ALTER TABLE tasks ADD CONSTRAINT tasks_assigned_to_id_backfilled " +
+                    "CHECK ((assigned_to IS NULL) = (assigned_to_id IS NULL)) NOT VALID",
+            "ALTER TABLE tasks VALIDATE CONSTRAINT tasks_assigned_to_id_backfilled"
+    };
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        backfillUsers(connection);
+        // Tasks are filled once every user has an id; tasks inserted from now on are filled by the trigger
+        backfillTasks(connection, maxTaskId(connection));
+
+        try (Statement statement = connection.createStatement()) {
+            for (String constraint : CONSTRAINTS) {
+                statement.execute(constraint);
+            }
+        }
+    }
+
+    private void backfillUsers(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(BACKFILL_USERS)) {
+            statement.setInt(1, USER_BATCH_SIZE);
+            while (statement.executeUpdate() > 0) {
+                // Next batch
+            }
+        }
+    }
+
+    private void backfillTasks(Connection connection, long maxId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(BACKFILL_TASKS)) {
+            for (long from = 0; from < maxId; from += TASK_BATCH_SIZE) {
+                statement.setLong(1, from);
+                statement.setLong(2, from + TASK_BATCH_SIZE);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private long maxTaskId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM tasks")) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+-- ==========================================
+-- Numeric user ids (4/5): switch keys
+-- ==========================================
+-- From here on only the id columns are written, so instances of the previous application version must be
+-- stopped first. Every statement reuses work done online by V8 and V9, so the locks are held only briefly.
+
+SET LOCAL lock_timeout = '5s';
+
+DROP TRIGGER tasks_sync_user_ids ON tasks;
+DROP FUNCTION tasks_sync_user_ids();
+
+-- The CHECK constraints validated by V8 prove there are no NULLs, so SET NOT NULL skips the table scan
+ALTER TABLE users ALTER COLUMN id SET NOT NULL;
+ALTER TABLE users DROP CONSTRAINT users_id_not_null;
+ALTER TABLE tasks ALTER COLUMN created_by_id SET NOT NULL;
+ALTER TABLE tasks DROP CONSTRAINT tasks_created_by_id_not_null,
+                  DROP CONSTRAINT tasks_assigned_to_id_backfilled;
+
+-- Drop the email-keyed foreign keys, their columns and indexes
+ALTER TABLE refresh_tokens DROP CONSTRAINT refresh_tokens_user_email_fkey;
+ALTER TABLE tasks DROP CONSTRAINT fk_assigned_to,
+                  DROP CONSTRAINT fk_created_by,
+                  DROP COLUMN assigned_to,
+                  DROP COLUMN created_by;
+
+-- Swap the primary key to the id, keeping the email unique, using the indexes built by V9
+ALTER TABLE users DROP CONSTRAINT users_pkey;
+ALTER TABLE users ADD CONSTRAINT users_pkey PRIMARY KEY USING INDEX users_id_key;
+ALTER TABLE users ADD CONSTRAINT users_email_key UNIQUE USING INDEX users_email_key;
+
+-- NOT VALID skips checking the existing rows here; V11 validates them without blocking writes
+ALTER TABLE tasks ADD CONSTRAINT fk_assigned_to_id FOREIGN KEY (assigned_to_id) REFERENCES users(id) NOT VALID,
+                  ADD CONSTRAINT fk_created_by_id FOREIGN KEY (created_by_id) REFERENCES users(id) NOT VALID;
+-- Refresh tokens stay keyed by email, now backed by the unique constraint
+ALTER TABLE refresh_tokens ADD CONSTRAINT refresh_tokens_user_email_fkey FOREIGN KEY (user_email)
+    REFERENCES users(email) ON UPDATE CASCADE ON DELETE CASCADE NOT VALID;
+
+-- Pooled id allocation, as for tasks (see V4)
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
@@ -0,0 +1,8 @@
+-- ==========================================
+-- Numeric user ids (5/5): validate foreign keys
+-- ==========================================
+-- VALIDATE CONSTRAINT scans the rows with a lock that still allows reads and writes.
+
+ALTER TABLE tasks VALIDATE CONSTRAINT fk_assigned_to_id;
+ALTER TABLE tasks VALIDATE CONSTRAINT fk_created_by_id;
+ALTER TABLE refresh_tokens VALIDATE CONSTRAINT refresh_tokens_user_email_fkey;
@@ -0,0 +1,34 @@
+-- ==========================================
+-- Store task status / priority and user role as SMALLINT codes
+-- ==========================================
+-- The codes are declared on the enums (TaskStatus, TaskPriority, Role) and mapped by their JPA converters; the API
+-- keeps using the names. Each ALTER TABLE rewrites its table (and rebuilds its indexes) once, holding an exclusive
+-- lock meanwhile, so instances of the previous application version must be stopped first.
+-- An unknown name maps to NULL and fails the NOT NULL constraint instead of being silently converted.
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE tasks
+    ALTER COLUMN status TYPE SMALLINT USING CASE status
+        WHEN 'TO_DO' THEN 0
+        WHEN 'IN_PROGRESS' THEN 1
+        WHEN 'REVIEW' THEN 2
+        WHEN 'DONE' THEN 3
+        WHEN 'CANCELLED' THEN 4
+    END,
+    ALTER COLUMN priority TYPE SMALLINT USING CASE priority
+        WHEN 'LOW' THEN 0
+        WHEN 'MEDIUM' THEN 1
+        WHEN 'HIGH' THEN 2
+    END,
+    -- Checked during the rewrite, no separate scan
+    ADD CONSTRAINT tasks_status_check CHECK (status BETWEEN 0 AND 4),
+    ADD CONSTRAINT tasks_priority_check CHECK (priority BETWEEN 0 AND 2);
+
+ALTER TABLE users
+    ALTER COLUMN role TYPE SMALLINT USING CASE role
+        WHEN 'ADMIN' THEN 0
+        WHEN 'MANAGER' THEN 1
+        WHEN 'MEMBER' THEN 2
+    END,
+    ADD CONSTRAINT users_role_check CHECK (role BETWEEN 0 AND 2);
@@ -0,0 +1,28 @@
+-- ==========================================
+-- Archive of soft-deleted and completed tasks
+-- ==========================================
+-- TaskArchiveJob moves rows here from 'tasks' in small batches, so live queries and indexes only carry live rows.
+-- Same columns as 'tasks' plus the time the row was archived.
+
+CREATE TABLE tasks_archive (
+                       id BIGINT PRIMARY KEY,
+                       title VARCHAR(255) NOT NULL,
+                       description TEXT,
+                       status SMALLINT NOT NULL,
+                       priority SMALLINT NOT NULL,
+                       due_date TIMESTAMP NOT NULL,
+                       assigned_to_id BIGINT,
+                       created_by_id BIGINT NOT NULL,
+                       created_at TIMESTAMP,
+                       updated_at TIMESTAMP,
+                       deleted_at TIMESTAMP NULL,
+                       version BIGINT NOT NULL,
+                       archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                       CONSTRAINT fk_archive_assigned_to_id FOREIGN KEY (assigned_to_id) REFERENCES users(id),
+                       CONSTRAINT fk_archive_created_by_id FOREIGN KEY (created_by_id) REFERENCES users(id)
+);
+
+-- Archive listings, newest first: all rows (ADMIN / MANAGER) or the rows assigned to one user (MEMBER)
+CREATE INDEX idx_task_archive_archived_at_id ON tasks_archive(archived_at, id);
+CREATE INDEX idx_task_archive_assigned_to_id_archived_at_id ON tasks_archive(assigned_to_id, archived_at, id);
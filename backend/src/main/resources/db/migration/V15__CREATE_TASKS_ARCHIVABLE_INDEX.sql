@@ -0,0 +1,8 @@
+-- ==========================================
+-- Index of the rows TaskArchiveJob moves to 'tasks_archive'
+-- ==========================================
+-- Soft-deleted tasks and DONE (3) / CANCELLED (4) tasks, so each batch finds its rows without scanning the live
+-- ones. The predicate must match TaskArchiveRepository for the planner to use the index.
+-- Built without blocking writes (Flyway runs CONCURRENTLY statements outside a transaction).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_archivable ON tasks(id) WHERE deleted_at IS NOT NULL OR status IN (3, 4);
@@ -0,0 +1,18 @@
+-- ==========================================
+-- Partitioning 'tasks' by id range (1/3): bound the existing rows
+-- ==========================================
+-- V18 turns the current table into the first partition of a table partitioned by id, without copying it. Attaching
+-- it skips the scan of its rows if a validated CHECK already proves they fit the partition, so this adds one:
+-- every id below the next multiple of 1,000,000 (the partition size) after a full partition of headroom.
+-- NOT VALID skips checking the existing rows here; V17 validates them without blocking writes. New rows are
+-- checked, so the headroom must last until V18 runs.
+
+SET LOCAL lock_timeout = '5s';
+
+DO $$
+DECLARE
+    bound BIGINT := ((SELECT last_value FROM tasks_id_seq) / 1000000 + 2) * 1000000;
+BEGIN
+    EXECUTE format('ALTER TABLE tasks ADD CONSTRAINT tasks_p0_bound CHECK (id < %s) NOT VALID', bound);
+END
+$$;
@@ -0,0 +1,6 @@
+-- ==========================================
+-- Partitioning 'tasks' by id range (2/3): validate the bound
+-- ==========================================
+-- VALIDATE CONSTRAINT scans the rows with a lock that still allows reads and writes.
+
+ALTER TABLE tasks VALIDATE CONSTRAINT tasks_p0_bound;
@@ -0,0 +1,63 @@
+-- ==========================================
+-- Partitioning 'tasks' by id range (3/3): switch to the partitioned table
+-- ==========================================
+-- 'tasks' becomes a table partitioned by ranges of 1,000,000 ids, and the current table its first partition
+-- 'tasks_p0' (every id below the bound of V16). Ids come from a sequence, so each partition holds the tasks
+-- created during one period: old partitions stop changing once their tasks are archived, and are vacuumed and
+-- indexed on their own. Every statement looking tasks up by id only reads the partition holding that id.
+-- The primary key stays (id), which a range of created_at could not provide (it must include the partition key),
+-- and assigned_to_id is nullable and changes, so it cannot be the key either.
+-- Catalog changes only, under an exclusive lock held briefly: the indexes, constraints and foreign keys of the
+-- current table are reused by the partitioned one, and the CHECK validated by V17 spares the scan of its rows.
+-- TaskPartitionJob creates the next partitions ahead of the sequence; this creates the first three.
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE tasks RENAME TO tasks_p0;
+
+-- Free the index names for the partitioned table; its indexes take over the renamed ones when tasks_p0 is attached
+ALTER INDEX tasks_pkey RENAME TO tasks_p0_pkey;
+ALTER INDEX idx_task_due_date_id RENAME TO tasks_p0_due_date_id_idx;
+ALTER INDEX idx_task_updated_at_id RENAME TO tasks_p0_updated_at_id_idx;
+ALTER INDEX idx_task_assigned_to_id_due_date_id RENAME TO tasks_p0_assigned_to_id_due_date_id_idx;
+ALTER INDEX idx_task_assigned_to_id_updated_at_id RENAME TO tasks_p0_assigned_to_id_updated_at_id_idx;
+ALTER INDEX idx_task_assigned_to_id_status_priority RENAME TO tasks_p0_assigned_to_id_status_priority_idx;
+ALTER INDEX idx_task_created_by_id RENAME TO tasks_p0_created_by_id_idx;
+ALTER INDEX idx_task_created_at_id RENAME TO tasks_p0_created_at_id_idx;
+ALTER INDEX idx_task_archivable RENAME TO tasks_p0_archivable_idx;
+
+-- Same columns, defaults and CHECK constraints; the id default keeps drawing from tasks_id_seq
+CREATE TABLE tasks (LIKE tasks_p0 INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (id);
+ALTER TABLE tasks DROP CONSTRAINT tasks_p0_bound;
+ALTER SEQUENCE tasks_id_seq OWNED BY tasks.id;
+
+ALTER TABLE tasks ADD CONSTRAINT tasks_pkey PRIMARY KEY (id),
+                  ADD CONSTRAINT fk_assigned_to_id FOREIGN KEY (assigned_to_id) REFERENCES users(id),
+                  ADD CONSTRAINT fk_created_by_id FOREIGN KEY (created_by_id) REFERENCES users(id);
+
+-- The definitions of V3, V9, V12 and V15, which the indexes of tasks_p0 match
+CREATE INDEX idx_task_due_date_id ON tasks(due_date, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_updated_at_id ON tasks(updated_at, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_assigned_to_id_due_date_id ON tasks(assigned_to_id, due_date, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_assigned_to_id_updated_at_id ON tasks(assigned_to_id, updated_at, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_assigned_to_id_status_priority ON tasks(assigned_to_id, status, priority) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_created_by_id ON tasks(created_by_id);
+CREATE INDEX idx_task_created_at_id ON tasks(created_at, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_archivable ON tasks(id) WHERE deleted_at IS NOT NULL OR status IN (3, 4);
+
+DO $$
+DECLARE
+    bound BIGINT := substring(
+            (SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = 'tasks_p0_bound'), '\d+')::BIGINT;
+BEGIN
+    EXECUTE format('ALTER TABLE tasks ATTACH PARTITION tasks_p0 FOR VALUES FROM (MINVALUE) TO (%s)', bound);
+
+    FOR i IN 0..2 LOOP
+        EXECUTE format('CREATE TABLE tasks_p%1$s PARTITION OF tasks FOR VALUES FROM (%1$s) TO (%2$s)',
+                       bound + i * 1000000, bound + (i + 1) * 1000000);
+    END LOOP;
+END
+$$;
+
+-- Redundant with the partition bound from here on
+ALTER TABLE tasks_p0 DROP CONSTRAINT tasks_p0_bound;
@@ -0,0 +1,11 @@
+-- ==========================================
+-- Indexes for cursor (keyset) pagination on 'tasks'
+-- ==========================================
+
+-- ADMIN / MANAGER listings ordered by (due_date, id) and (updated_at, id)
+CREATE INDEX idx_task_due_date_id ON tasks(due_date, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_updated_at_id ON tasks(updated_at, id) WHERE deleted_at IS NULL;
+
+-- MEMBER listings (always filtered by assigned_to)
+CREATE INDEX idx_task_assigned_to_due_date_id ON tasks(assigned_to, due_date, id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_task_assigned_to_updated_at_id ON tasks(assigned_to, updated_at, id) WHERE deleted_at IS NULL;
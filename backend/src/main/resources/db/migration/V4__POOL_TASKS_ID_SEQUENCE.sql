@@ -0,0 +1,11 @@
+-- ==========================================
+-- Pooled id allocation for 'tasks'
+-- ==========================================
+-- Hibernate reserves a block of ids with a single nextval. The block size is the sequence INCREMENT BY
+-- and can be changed later with ALTER SEQUENCE tasks_id_seq INCREMENT BY <n>.
+-- The id column keeps its DEFAULT nextval('tasks_id_seq'), and existing ids are not touched.
+
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
+
+-- Restart beyond the current maximum with a full block of headroom, whichever optimizer reads it
+SELECT setval('tasks_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tasks), false);
@@ -0,0 +1,6 @@
+-- ==========================================
+-- Optimistic locking for 'tasks'
+-- ==========================================
+-- Incremented on every update. A PATCH carrying an older version matches no row and is rejected with 409.
+
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
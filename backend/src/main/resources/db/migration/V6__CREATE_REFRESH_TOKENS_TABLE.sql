@@ -0,0 +1,17 @@
+-- ==========================================
+-- Refresh tokens
+-- ==========================================
+-- Only the SHA-256 hash (hex) of each token is stored. A token is revoked when it is used, so that each one
+-- works once; using an already revoked token revokes every token of the user.
+
+CREATE TABLE refresh_tokens (
+                                id BIGSERIAL PRIMARY KEY,
+                                token_hash VARCHAR(64) NOT NULL UNIQUE,
+                                user_email VARCHAR(255) NOT NULL REFERENCES users(email) ON UPDATE CASCADE ON DELETE CASCADE,
+                                created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                expires_at TIMESTAMP NOT NULL,
+                                revoked_at TIMESTAMP NULL
+);
+
+-- Revoking all tokens of a user only touches the active ones
+CREATE INDEX idx_refresh_tokens_user_active ON refresh_tokens(user_email) WHERE revoked_at IS NULL;
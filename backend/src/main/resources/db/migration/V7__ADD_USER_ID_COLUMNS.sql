@@ -0,0 +1,29 @@
+-- ==========================================
+-- Numeric user ids (1/5): expand
+-- ==========================================
+-- Users get a BIGINT id and tasks reference it instead of the email. Every statement here only changes the
+-- catalog (no table rewrite), and the application version that still writes emails keeps working until V10.
+
+-- Fail fast instead of queueing behind long transactions (and blocking every query queued behind this one)
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE users ADD COLUMN id BIGINT;
+CREATE SEQUENCE users_id_seq OWNED BY users.id;
+-- Only rows inserted from now on take the default; existing rows are backfilled in batches by V8
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_id_seq');
+
+ALTER TABLE tasks ADD COLUMN assigned_to_id BIGINT,
+                  ADD COLUMN created_by_id BIGINT;
+
+-- Tasks written by the previous application version only carry emails; resolve their ids on write
+CREATE FUNCTION tasks_sync_user_ids() RETURNS trigger AS $$
+BEGIN
+    NEW.created_by_id := (SELECT id FROM users WHERE email = NEW.created_by);
+    NEW.assigned_to_id := (SELECT id FROM users WHERE email = NEW.assigned_to);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tasks_sync_user_ids
+    BEFORE INSERT OR UPDATE OF created_by, assigned_to ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_sync_user_ids();
@@ -0,0 +1,12 @@
+-- ==========================================
+-- Numeric user ids (3/5): indexes
+-- ==========================================
+-- Built without blocking writes (Flyway runs CONCURRENTLY statements outside a transaction).
+-- V10 turns the first two into the primary key and the email unique constraint.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_id_key ON users(id);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_email_key ON users(email);
+
+-- MEMBER listings (always filtered by the assignee), replacing the email-keyed indexes of V3
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_assigned_to_id_due_date_id ON tasks(assigned_to_id, due_date, id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_task_assigned_to_id_updated_at_id ON tasks(assigned_to_id, updated_at, id) WHERE deleted_at IS NULL;
@@ -0,0 +1,84 @@
+package com.erikssonherlo.taskmanagement.task.service.impl;
+
+import com.erikssonherlo.taskmanagement.common.exception.ResourceNotFoundException;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.task.repository.ReactiveTaskRepository;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.security.access.AccessDeniedException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveTaskServiceImplTest {
+
+    @Mock
+    private ReactiveTaskRepository reactiveTaskRepository;
+
+    @Spy
+    private TaskAccessPolicy taskAccessPolicy = new TaskAccessPolicy();
+
+    @InjectMocks
+    private ReactiveTaskServiceImpl reactiveTaskService;
+
+    private static final Long USER_ID = 1L;
+    private static final String USER_EMAIL = "user@example.com";
+
+    private final AuthenticatedUser member = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getAllTasks_appliesTheViewRuleOfTheRole() {
+        TaskDTO task = TaskDTO.builder().id(1L).assignedTo(USER_EMAIL).build();
+        when(reactiveTaskRepository.findAll(anyString(), eq(USER_ID), any(), any())).thenReturn(Flux.just(task));
+
+        assertThat(reactiveTaskService.getAllTasks(member, Optional.of(TaskStatus.TO_DO), Optional.empty()).collectList().block())
+                .containsExactly(task);
+        verify(reactiveTaskRepository).findAll(eq("(assigned_to_id = :currentUserId)"), eq(USER_ID), eq(Optional.of(TaskStatus.TO_DO)), eq(Optional.empty()));
+    }
+
+    @Test
+    void getTaskById_returnsAllowedTask() {
+        TaskDTO task = TaskDTO.builder().id(1L).assignedTo(USER_EMAIL).build();
+        when(reactiveTaskRepository.findById(eq(1L), anyString(), eq(USER_ID)))
+                .thenReturn(Mono.just(new ReactiveTaskRepository.TaskAccess(task, true)));
+
+        assertThat(reactiveTaskService.getTaskById(1L, member).block()).isEqualTo(task);
+    }
+
+    @Test
+    void getTaskById_rejectsTaskOfAnotherUser() {
+        TaskDTO task = TaskDTO.builder().id(1L).assignedTo("other@example.com").build();
+        when(reactiveTaskRepository.findById(eq(1L), anyString(), eq(USER_ID)))
+                .thenReturn(Mono.just(new ReactiveTaskRepository.TaskAccess(task, false)));
+
+        assertThatThrownBy(() -> reactiveTaskService.getTaskById(1L, member).block())
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("not allowed");
+    }
+
+    @Test
+    void getTaskById_throwsNotFound_whenMissing() {
+        when(reactiveTaskRepository.findById(eq(1L), anyString(), eq(USER_ID))).thenReturn(Mono.empty());
+
+        assertThatThrownBy(() -> reactiveTaskService.getTaskById(1L, member).block())
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
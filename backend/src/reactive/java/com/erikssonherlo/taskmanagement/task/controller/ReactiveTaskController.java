@@ -0,0 +1,63 @@
+package com.erikssonherlo.taskmanagement.task.controller;
+
+import com.erikssonherlo.taskmanagement.common.payload.ApiResponse;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.service.ReactiveTaskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Non-blocking task reads. The request thread is released while the query runs, and listings are written as
+ * NDJSON one task at a time as the client reads them, so slow clients apply backpressure to the query.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/tasks")
+@Profile("reactive")
+@RequiredArgsConstructor
+@Tag(name = "Task Management (reactive)", description = "Non-blocking task reads with the same role-based rules")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService reactiveTaskService;
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream tasks", description = "Stream the visible tasks as NDJSON, newest first, with optional filters by status and priority")
+    public Flux<TaskDTO> getAllTasks(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) TaskPriority priority
+    ) {
+        return reactiveTaskService.getAllTasks(currentUser, Optional.ofNullable(status), Optional.ofNullable(priority));
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'MANAGER', 'MEMBER')")
+    @GetMapping("/{taskId}")
+    @Operation(summary = "Get task", description = "Get a task by ID (role-based restrictions apply)")
+    public Mono<ApiResponse<TaskDTO>> getTaskById(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @PathVariable Long taskId
+    ) {
+        return reactiveTaskService.getTaskById(taskId, currentUser)
+                .map(task -> new ApiResponse<>(
+                        HttpStatus.OK.value(),
+                        "Task retrieved successfully",
+                        HttpStatus.OK,
+                        task
+                ));
+    }
+}
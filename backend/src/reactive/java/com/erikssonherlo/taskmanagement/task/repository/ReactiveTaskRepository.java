@@ -0,0 +1,141 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.entity.TaskPriorityConverter;
+import com.erikssonherlo.taskmanagement.task.entity.TaskStatusConverter;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Non-blocking reads of tasks over R2DBC, against the same schema as the JPA repositories.
+ * <p>
+ * The connection pool is private to this repository rather than a bean: an R2DBC ConnectionFactory bean would make
+ * Spring Boot back off from the JDBC DataSource that JPA and Flyway use.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveTaskRepository implements DisposableBean {
+
+    private static final String COLUMNS = "t.id, t.title, t.description, t.status, t.priority, t.due_date, " +
+            "a.email AS assigned_to, c.email AS created_by, t.created_at, t.updated_at, t.version";
+
+    // Tasks only hold the user ids; the emails are joined on the users primary key
+    private static final String FROM = " FROM tasks t" +
+            " LEFT JOIN users a ON a.id = t.assigned_to_id" +
+            " LEFT JOIN users c ON c.id = t.created_by_id";
+
+    // status and priority are stored as SMALLINT codes, mapped by the same converters as TaskEntity
+    private static final TaskStatusConverter STATUS_CONVERTER = new TaskStatusConverter();
+    private static final TaskPriorityConverter PRIORITY_CONVERTER = new TaskPriorityConverter();
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveTaskRepository(@Value("${reactive.r2dbc.url}") String url,
+                                  @Value("${reactive.r2dbc.username}") String username,
+                                  @Value("${reactive.r2dbc.password}") String password,
+                                  @Value("${reactive.r2dbc.pool.max-size:20}") int maxSize,
+                                  @Value("${reactive.r2dbc.fetch-size:256}") int fetchSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams the tasks matching the access condition and the optional filters, newest first. Rows are fetched
+     * from the database in batches of {@code fetch-size} as the subscriber requests them.
+     *
+     * @param accessCondition  SQL condition of the access rule, see {@link TaskAccessPolicy#sqlCondition}.
+     * @param currentUserId    The id of the current user, bound to the access condition.
+     * @param status           Optional status filter.
+     * @param priority         Optional priority filter.
+     * @return The matching tasks.
+     */
+    public Flux<TaskDTO> findAll(String accessCondition, Long currentUserId, Optional<TaskStatus> status, Optional<TaskPriority> priority) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(FROM)
+                .append(" WHERE t.deleted_at IS NULL AND ").append(accessCondition);
+        status.ifPresent(s -> sql.append(" AND t.status = :status"));
+        priority.ifPresent(p -> sql.append(" AND t.priority = :priority"));
+        sql.append(" ORDER BY t.created_at DESC, t.id DESC");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind(TaskAccessPolicy.CURRENT_USER_ID_PARAM, currentUserId);
+        if (status.isPresent()) {
+            spec = spec.bind("status", STATUS_CONVERTER.convertToDatabaseColumn(status.get()));
+        }
+        if (priority.isPresent()) {
+            spec = spec.bind("priority", PRIORITY_CONVERTER.convertToDatabaseColumn(priority.get()));
+        }
+
+        return spec.filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveTaskRepository::toDTO)
+                .all();
+    }
+
+    /**
+     * Finds a task and evaluates the access condition for it in the same query.
+     *
+     * @param taskId           The id of the task.
+     * @param accessCondition  SQL condition of the access rule, see {@link TaskAccessPolicy#sqlCondition}.
+     * @param currentUserId    The id of the current user, bound to the access condition.
+     * @return The task and whether the current user may access it, or empty if it does not exist.
+     */
+    public Mono<TaskAccess> findById(Long taskId, String accessCondition, Long currentUserId) {
+        return databaseClient.sql("SELECT " + COLUMNS + ", CASE WHEN " + accessCondition + " THEN TRUE ELSE FALSE END AS allowed" +
+                        FROM + " WHERE t.id = :id AND t.deleted_at IS NULL")
+                .bind("id", taskId)
+                .bind(TaskAccessPolicy.CURRENT_USER_ID_PARAM, currentUserId)
+                .map(row -> new TaskAccess(toDTO(row), Boolean.TRUE.equals(row.get("allowed", Boolean.class))))
+                .one();
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    private static TaskDTO toDTO(Readable row) {
+        return TaskDTO.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .status(STATUS_CONVERTER.convertToEntityAttribute(row.get("status", Short.class)))
+                .priority(PRIORITY_CONVERTER.convertToEntityAttribute(row.get("priority", Short.class)))
+                .dueDate(row.get("due_date", LocalDateTime.class))
+                .assignedTo(row.get("assigned_to", String.class))
+                .createdBy(row.get("created_by", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    /**
+     * A task and whether the current user may access it.
+     */
+    public record TaskAccess(TaskDTO task, boolean allowed) {
+    }
+}
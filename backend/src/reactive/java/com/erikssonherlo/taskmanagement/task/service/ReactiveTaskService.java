@@ -0,0 +1,15 @@
+package com.erikssonherlo.taskmanagement.task.service;
+
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+public interface ReactiveTaskService {
+    Flux<TaskDTO> getAllTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority);
+    Mono<TaskDTO> getTaskById(Long taskId, AuthenticatedUser currentUser);
+}
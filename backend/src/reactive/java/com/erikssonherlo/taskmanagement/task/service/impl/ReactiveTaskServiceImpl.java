@@ -0,0 +1,44 @@
+package com.erikssonherlo.taskmanagement.task.service.impl;
+
+import com.erikssonherlo.taskmanagement.common.exception.ResourceNotFoundException;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.task.repository.ReactiveTaskRepository;
+import com.erikssonherlo.taskmanagement.task.service.ReactiveTaskService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTaskServiceImpl implements ReactiveTaskService {
+
+    private final ReactiveTaskRepository reactiveTaskRepository;
+    private final TaskAccessPolicy taskAccessPolicy;
+
+    @Override
+    public Flux<TaskDTO> getAllTasks(AuthenticatedUser currentUser, Optional<TaskStatus> status, Optional<TaskPriority> priority) {
+        return reactiveTaskRepository.findAll(
+                taskAccessPolicy.sqlCondition(TaskAction.VIEW, currentUser.role()), currentUser.id(), status, priority);
+    }
+
+    @Override
+    public Mono<TaskDTO> getTaskById(Long taskId, AuthenticatedUser currentUser) {
+        return reactiveTaskRepository.findById(
+                        taskId, taskAccessPolicy.sqlCondition(TaskAction.VIEW, currentUser.role()), currentUser.id())
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Task", "id", taskId)))
+                .flatMap(access -> access.allowed()
+                        ? Mono.just(access.task())
+                        : Mono.error(new AccessDeniedException(taskAccessPolicy.deniedMessage(TaskAction.VIEW, currentUser.role()))));
+    }
+}
@@ -1,9 +1,14 @@
 package com.erikssonherlo.taskmanagement.auth.service.impl;
 
 import com.erikssonherlo.taskmanagement.auth.dto.LoginDTO;
+import com.erikssonherlo.taskmanagement.auth.dto.RefreshTokenDTO;
 import com.erikssonherlo.taskmanagement.auth.dto.RegisterDTO;
+import com.erikssonherlo.taskmanagement.auth.entity.RefreshTokenEntity;
+import com.erikssonherlo.taskmanagement.auth.repository.RefreshTokenRepository;
 import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceAlreadyExistsException;
+import com.erikssonherlo.taskmanagement.common.exception.ServiceUnavailableException;
+import com.erikssonherlo.taskmanagement.common.exception.UnauthorizedException;
 import com.erikssonherlo.taskmanagement.common.payload.AuthResponse;
 import com.erikssonherlo.taskmanagement.common.security.JWTService;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
@@ -11,13 +16,19 @@ import com.erikssonherlo.taskmanagement.user.model.Role;
 import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -33,6 +44,12 @@ class AuthServiceImplTest {
     private JWTService jwtService;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -53,27 +70,47 @@ class AuthServiceImplTest {
     void register_shouldRegisterUserSuccessfully() {
         RegisterDTO request = new RegisterDTO(EMAIL, "First", "Last", PASSWORD);
 
-        when(userRepository.existsByEmail(EMAIL)).thenReturn(false);
         when(passwordEncoder.encode(PASSWORD)).thenReturn(ENCODED_PASSWORD);
+        when(userRepository.insertIfAbsent(any(UserEntity.class))).thenReturn(1);
         when(jwtService.generateToken(any(UserEntity.class))).thenReturn(TOKEN);
 
         AuthResponse response = authService.register(request);
 
         assertThat(response).isNotNull();
         assertThat(response.getToken()).isEqualTo(TOKEN);
-        verify(userRepository).save(any(UserEntity.class));
+        verify(userRepository).insertIfAbsent(argThat(user -> ENCODED_PASSWORD.equals(user.getPassword()) && user.getRole() == Role.MEMBER));
+        verify(userRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void register_shouldHashPasswordBeforeTheTransactionStarts() {
+        RegisterDTO request = new RegisterDTO(EMAIL, "First", "Last", PASSWORD);
+
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(ENCODED_PASSWORD);
+        when(userRepository.insertIfAbsent(any(UserEntity.class))).thenReturn(1);
+
+        authService.register(request);
+
+        InOrder inOrder = inOrder(passwordEncoder, transactionManager, userRepository, refreshTokenRepository);
+        inOrder.verify(passwordEncoder).encode(PASSWORD);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userRepository).insertIfAbsent(any(UserEntity.class));
+        inOrder.verify(refreshTokenRepository).save(any(RefreshTokenEntity.class));
+        inOrder.verify(transactionManager).commit(any());
     }
 
     @Test
     void register_shouldThrowExceptionWhenEmailExists() {
         RegisterDTO request = new RegisterDTO(EMAIL, "First", "Last", PASSWORD);
-        when(userRepository.existsByEmail(EMAIL)).thenReturn(true);
+        when(userRepository.insertIfAbsent(any(UserEntity.class))).thenReturn(0);
 
         assertThatThrownBy(() -> authService.register(request))
                 .isInstanceOf(ResourceAlreadyExistsException.class)
                 .hasMessageContaining("User");
 
-        verify(userRepository, never()).save(any());
+        verify(jwtService, never()).generateToken(any());
+        verify(refreshTokenRepository, never()).save(any());
+        verify(transactionManager).rollback(any());
     }
 
     // ------------------------ LOGIN TESTS ------------------------
@@ -88,14 +125,22 @@ class AuthServiceImplTest {
                 .build();
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(mock(org.springframework.security.core.Authentication.class));
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
         when(jwtService.generateToken(user)).thenReturn(TOKEN);
 
         AuthResponse response = authService.login(request);
 
         assertThat(response).isNotNull();
         assertThat(response.getToken()).isEqualTo(TOKEN);
+        assertThat(response.getRefreshToken()).isNotBlank();
+        // The authenticated principal is used; the user is not loaded a second time
+        verify(userRepository, never()).findByEmail(any());
+
+        // Only the hash of the refresh token is stored
+        ArgumentCaptor<RefreshTokenEntity> stored = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(refreshTokenRepository).save(stored.capture());
+        assertThat(stored.getValue().getUserEmail()).isEqualTo(EMAIL);
+        assertThat(stored.getValue().getTokenHash()).hasSize(64).isNotEqualTo(response.getRefreshToken());
     }
 
     @Test
@@ -110,16 +155,99 @@ class AuthServiceImplTest {
     }
 
     @Test
-    void login_shouldThrowExceptionWhenUserNotFound() {
+    void login_shouldPropagateServiceUnavailable_whenPasswordEncoderIsSaturated() {
+        LoginDTO request = new LoginDTO(EMAIL, PASSWORD);
+        doThrow(new ServiceUnavailableException("Too many authentication requests.")).when(authenticationManager)
+                .authenticate(any(UsernamePasswordAuthenticationToken.class));
+
+        assertThatThrownBy(() -> authService.login(request))
+                .isInstanceOf(ServiceUnavailableException.class);
+        verify(jwtService, never()).generateToken(any());
+    }
+
+    @Test
+    void login_shouldThrowExceptionWhenPrincipalIsNotAUser() {
         LoginDTO request = new LoginDTO(EMAIL, PASSWORD);
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(mock(org.springframework.security.core.Authentication.class));
 
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
-
         assertThatThrownBy(() -> authService.login(request))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Invalid email or password");
     }
+
+    // ------------------------ REFRESH TESTS ------------------------
+
+    @Test
+    void refresh_shouldRotateTheRefreshToken() {
+        UserEntity user = UserEntity.builder().email(EMAIL).role(Role.MEMBER).build();
+        RefreshTokenEntity stored = storedToken(LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revoke(eq(stored.getId()), any())).thenReturn(1);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(user)).thenReturn(TOKEN);
+
+        AuthResponse response = authService.refresh(new RefreshTokenDTO("refresh-token"));
+
+        assertThat(response.getToken()).isEqualTo(TOKEN);
+        assertThat(response.getRefreshToken()).isNotBlank().isNotEqualTo("refresh-token");
+        verify(refreshTokenRepository).save(any(RefreshTokenEntity.class));
+    }
+
+    @Test
+    void refresh_shouldRevokeAllTokensOfTheUser_whenAUsedTokenIsReused() {
+        RefreshTokenEntity stored = storedToken(LocalDateTime.now().plusDays(1), LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenDTO("refresh-token")))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(refreshTokenRepository).revokeAllByUserEmail(eq(EMAIL), any());
+        verify(jwtService, never()).generateToken(any());
+    }
+
+    @Test
+    void refresh_shouldRejectExpiredToken() {
+        RefreshTokenEntity stored = storedToken(LocalDateTime.now().minusMinutes(1), null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenDTO("refresh-token")))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(refreshTokenRepository, never()).revoke(any(), any());
+    }
+
+    @Test
+    void refresh_shouldRejectToken_whenUsedConcurrently() {
+        RefreshTokenEntity stored = storedToken(LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revoke(eq(stored.getId()), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenDTO("refresh-token")))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(jwtService, never()).generateToken(any());
+    }
+
+    // ------------------------ LOGOUT TESTS ------------------------
+
+    @Test
+    void logout_shouldRevokeRefreshAndAccessTokens() {
+        RefreshTokenEntity stored = storedToken(LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        authService.logout(new RefreshTokenDTO("refresh-token"), TOKEN);
+
+        verify(refreshTokenRepository).revoke(eq(stored.getId()), any());
+        verify(jwtService).revoke(TOKEN);
+    }
+
+    private RefreshTokenEntity storedToken(LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        return RefreshTokenEntity.builder()
+                .id(1L)
+                .tokenHash("hash")
+                .userEmail(EMAIL)
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .expiresAt(expiresAt)
+                .revokedAt(revokedAt)
+                .build();
+    }
 }
@@ -0,0 +1,141 @@
+package com.erikssonherlo.taskmanagement.auth.service.impl;
+
+import com.erikssonherlo.taskmanagement.auth.dto.LoginDTO;
+import com.erikssonherlo.taskmanagement.auth.repository.RefreshTokenRepository;
+import com.erikssonherlo.taskmanagement.common.config.CacheConfiguration;
+import com.erikssonherlo.taskmanagement.common.config.JpaConfiguration;
+import com.erikssonherlo.taskmanagement.common.payload.AuthResponse;
+import com.erikssonherlo.taskmanagement.common.security.JWTKeyStore;
+import com.erikssonherlo.taskmanagement.common.security.JWTService;
+import com.erikssonherlo.taskmanagement.common.security.RevokedTokenFilter;
+import com.erikssonherlo.taskmanagement.common.security.TokenVersionRegistry;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement-count regression tests for login, with the authentication manager, the user cache and the repositories
+ * wired as in the application. Login reads the user once, through the cache, and writes the refresh token.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:auth;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheConfiguration.class, JpaConfiguration.class})
+class AuthServiceStatementTest {
+
+    private static final String EMAIL = "member@example.com";
+    private static final String PASSWORD = "password123";
+    private static final String SECRET = "k38sm1LKwR4kMyhFgbyH1pKxczM+bqgqNU4YxD4G5QA=";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // The lowest cost, the hashing itself is not under test
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private AuthServiceImpl authService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(username -> userRepository.findByEmail(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        JWTService jwtService = new JWTService(new JWTKeyStore(new MockEnvironment().withProperty("security.jwt.secret", SECRET), ""),
+                3_600_000L, new TokenVersionRegistry(), new RevokedTokenFilter(3_600_000L, 100_000, 0.001));
+        authService = new AuthServiceImpl(userRepository, passwordEncoder, jwtService,
+                new ProviderManager(authenticationProvider), refreshTokenRepository, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(authService, "refreshExpirationMs", 1_209_600_000L);
+
+        cacheManager.getCache(CacheConfiguration.USERS_BY_EMAIL).clear();
+        userRepository.save(UserEntity.builder()
+                .email(EMAIL)
+                .firstName("First")
+                .lastName("Last")
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.MEMBER)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void login_readsTheUserOnceAndInsertsTheRefreshToken() {
+        CacheStats before = nativeCache().stats();
+
+        AuthResponse response = authService.login(new LoginDTO(EMAIL, PASSWORD));
+
+        assertThat(response.getToken()).isNotBlank();
+        assertThat(response.getRefreshToken()).isNotBlank();
+        // SELECT of the user + INSERT of the refresh token
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        CacheStats stats = nativeCache().stats().minus(before);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.hitCount()).isZero();
+    }
+
+    @Test
+    void login_withCachedUser_onlyInsertsTheRefreshToken() {
+        authService.login(new LoginDTO(EMAIL, PASSWORD));
+        entityManager.clear();
+        statistics.clear();
+        CacheStats before = nativeCache().stats();
+
+        authService.login(new LoginDTO(EMAIL, PASSWORD));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        CacheStats stats = nativeCache().stats().minus(before);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isZero();
+    }
+
+    private Cache<Object, Object> nativeCache() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfiguration.USERS_BY_EMAIL)).getNativeCache();
+    }
+}
@@ -0,0 +1,153 @@
+package com.erikssonherlo.taskmanagement.common.persistence;
+
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import org.flywaydb.core.Flyway;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Size and scan time of {@code tasks} before and after V13, which stores the enums as SMALLINT codes: the figures
+ * of the README.
+ * <p>
+ * Migrates an empty PostgreSQL database to V12, seeds it with generated tasks, measures, applies V13 and measures
+ * again. Each measurement follows a VACUUM FULL; the queries run as sequential scans without parallel workers and
+ * the median of 7 runs is reported. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.erikssonherlo.taskmanagement.common.persistence.CodedEnumColumnsBenchmark [tasks [jdbc-url user password]]
+ * </pre>
+ * 10,000,000 tasks by default. Without a JDBC URL (of an empty database), a PostgreSQL 16 container is started,
+ * which needs Docker.
+ */
+public class CodedEnumColumnsBenchmark {
+
+    private static final int RUNS = 7;
+
+    // 10 managers and 990 members
+    private static final String SEED_USERS = """
+            INSERT INTO users (email, first_name, last_name, password, role)
+            SELECT 'user' || g || '@example.com', 'First', 'Last', 'password',
+                   CASE WHEN g <= 10 THEN 'MANAGER' ELSE 'MEMBER' END
+            FROM generate_series(1, 1000) g
+            """;
+
+    // Statuses and priorities spread evenly, created by the managers, one in ten unassigned and one in ten deleted
+    private static final String SEED_TASKS = """
+            WITH u AS (SELECT array_agg(id ORDER BY id) AS ids FROM users)
+            INSERT INTO tasks (title, description, status, priority, due_date, assigned_to_id, created_by_id,
+                               created_at, updated_at, deleted_at)
+            SELECT 'Task ' || g, md5(g::TEXT),
+                   (%s)[1 + g %% %d],
+                   (%s)[1 + (g / %d) %% %d],
+                   now() + g * interval '1 second',
+                   CASE WHEN g %% 10 = 0 THEN NULL ELSE u.ids[11 + g %% 990] END,
+                   u.ids[1 + g %% 10],
+                   now() - (%d - g) * interval '1 second', now(),
+                   CASE WHEN g %% 10 = 1 THEN now() END
+            FROM u, generate_series(1, %d) g
+            """;
+
+    public static void main(String[] args) throws SQLException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        if (args.length > 1) {
+            run(args[1], args[2], args[3], tasks);
+            return;
+        }
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "maintenance_work_mem=512MB",
+                        "-c", "max_wal_size=4GB", "-c", "synchronous_commit=off")) {
+            postgres.start();
+            run(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), tasks);
+        }
+    }
+
+    private static void run(String url, String user, String password, int tasks) throws SQLException {
+        migrate(url, user, password, "12");
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute(SEED_USERS);
+            statement.execute(SEED_TASKS.formatted(
+                    names(TaskStatus.values()), TaskStatus.values().length,
+                    names(TaskPriority.values()), TaskStatus.values().length, TaskPriority.values().length,
+                    tasks, tasks));
+            measure(statement, "VARCHAR(50)", "'" + TaskStatus.IN_PROGRESS.name() + "'", "'" + TaskPriority.HIGH.name() + "'");
+        }
+
+        long start = System.nanoTime();
+        migrate(url, user, password, "13");
+        System.out.printf("V13 rewrite: %d s%n", (System.nanoTime() - start) / 1_000_000_000);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            measure(statement, "SMALLINT", String.valueOf(TaskStatus.IN_PROGRESS.getCode()), String.valueOf(TaskPriority.HIGH.getCode()));
+        }
+    }
+
+    private static void migrate(String url, String user, String password, String target) {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static void measure(Statement statement, String label, String status, String priority) throws SQLException {
+        statement.execute("VACUUM FULL tasks");
+        statement.execute("ANALYZE tasks");
+        System.out.printf("%s: tasks heap %d MB, idx_task_assigned_to_id_status_priority %d MB%n", label,
+                megabytes(statement, "pg_relation_size('tasks')"),
+                megabytes(statement, "pg_relation_size('idx_task_assigned_to_id_status_priority')"));
+
+        statement.execute("SET max_parallel_workers_per_gather = 0");
+        statement.execute("SET enable_indexscan = off");
+        statement.execute("SET enable_indexonlyscan = off");
+        statement.execute("SET enable_bitmapscan = off");
+        time(statement, label + ": scan filtering on status and priority",
+                "SELECT count(*) FROM tasks WHERE deleted_at IS NULL AND status = " + status + " AND priority = " + priority);
+        time(statement, label + ": GROUP BY status, priority",
+                "SELECT status, priority, count(*) FROM tasks WHERE deleted_at IS NULL GROUP BY status, priority");
+        statement.execute("RESET ALL");
+    }
+
+    // Median of RUNS runs, after two warm-up runs
+    private static void time(Statement statement, String label, String query) throws SQLException {
+        long[] millis = new long[RUNS];
+        for (int run = -2; run < RUNS; run++) {
+            long start = System.nanoTime();
+            try (ResultSet rows = statement.executeQuery(query)) {
+                while (rows.next()) {
+                    // Read every row
+                }
+            }
+            if (run >= 0) {
+                millis[run] = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+        Arrays.sort(millis);
+        System.out.printf("%s: %d ms%n", label, millis[RUNS / 2]);
+    }
+
+    private static long megabytes(Statement statement, String size) throws SQLException {
+        try (ResultSet row = statement.executeQuery("SELECT " + size + " / (1024 * 1024)")) {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+
+    private static String names(Enum<?>[] values) {
+        return Arrays.stream(values)
+                .map(value -> "'" + value.name() + "'")
+                .collect(Collectors.joining(",", "ARRAY[", "]"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.erikssonherlo.taskmanagement.common.persistence;
+
+import com.erikssonherlo.taskmanagement.task.entity.TaskPriorityConverter;
+import com.erikssonherlo.taskmanagement.task.entity.TaskStatusConverter;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.user.entity.RoleConverter;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CodedEnumConverterTest {
+
+    private final TaskStatusConverter statusConverter = new TaskStatusConverter();
+
+    @Test
+    void convertsEveryConstantBackAndForth() {
+        assertRoundTrip(statusConverter, TaskStatus.values());
+        assertRoundTrip(new TaskPriorityConverter(), TaskPriority.values());
+        assertRoundTrip(new RoleConverter(), Role.values());
+    }
+
+    @Test
+    void codesMatchTheMigration() {
+        // Must stay in sync with V13__STORE_ENUMS_AS_SMALLINT.sql and the rows already stored
+        assertThat(statusConverter.convertToDatabaseColumn(TaskStatus.TO_DO)).isEqualTo((short) 0);
+        assertThat(statusConverter.convertToDatabaseColumn(TaskStatus.CANCELLED)).isEqualTo((short) 4);
+        assertThat(new TaskPriorityConverter().convertToDatabaseColumn(TaskPriority.HIGH)).isEqualTo((short) 2);
+        assertThat(new RoleConverter().convertToDatabaseColumn(Role.ADMIN)).isEqualTo((short) 0);
+        assertThat(new RoleConverter().convertToDatabaseColumn(Role.MEMBER)).isEqualTo((short) 2);
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertThat(statusConverter.convertToDatabaseColumn(null)).isNull();
+        assertThat(statusConverter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void unknownCode_isRejected() {
+        assertThatThrownBy(() -> statusConverter.convertToEntityAttribute((short) 99))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("TaskStatus")
+                .hasMessageContaining("99");
+    }
+
+    private static <E extends Enum<E> & CodedEnum> void assertRoundTrip(CodedEnumConverter<E> converter, E[] constants) {
+        for (E constant : constants) {
+            assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(constant))).isEqualTo(constant);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JWTKeyStoreTest {
+
+    private static final String SECRET = "k38sm1LKwR4kMyhFgbyH1pKxczM+bqgqNU4YxD4G5QA=";
+    private static final String NEW_SECRET = "Zm9vYmFyYmF6cXV4cXV1eGNvcmdlZ3JhdWx0Z2FycGx5d2FsZG8=";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void loadsKeyRingFromConfiguration() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("security.jwt.keys.2024-12", SECRET)
+                .withProperty("security.jwt.keys.2025-01", NEW_SECRET)
+                .withProperty("security.jwt.signing-key-id", "2025-01")
+                .withProperty("security.jwt.secret", SECRET);
+
+        JWTKeyStore.KeyRing ring = new JWTKeyStore(environment, "").current();
+
+        assertThat(ring.signingKeyId()).isEqualTo("2025-01");
+        assertThat(ring.keyIds()).containsExactlyInAnyOrder("2024-12", "2025-01");
+        assertThat(ring.verificationKey(null)).isEqualTo(ring.signingKey());
+    }
+
+    @Test
+    void fallsBackToSingleSecret() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("security.jwt.secret", SECRET)
+                .withProperty("security.jwt.key-id", "legacy");
+
+        JWTKeyStore keyStore = new JWTKeyStore(environment, "");
+
+        assertThat(keyStore.current().signingKeyId()).isEqualTo("legacy");
+        assertThat(keyStore.reload()).isFalse();
+    }
+
+    @Test
+    void rejectsSigningKeyThatIsNotConfigured() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("security.jwt.keys.2024-12", SECRET)
+                .withProperty("security.jwt.signing-key-id", "2025-01");
+
+        assertThatThrownBy(() -> new JWTKeyStore(environment, ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("2025-01");
+    }
+
+    @Test
+    void reload_keepsCurrentKeysWhenFileIsInvalidOrUnchanged() throws IOException {
+        Path keysFile = tempDir.resolve("jwt-keys.properties");
+        write(keysFile, 1, "security.jwt.signing-key-id=default", "security.jwt.keys.default=" + SECRET);
+        JWTKeyStore keyStore = new JWTKeyStore(new MockEnvironment(), keysFile.toString());
+        JWTKeyStore.KeyRing loaded = keyStore.current();
+
+        assertThat(keyStore.reload()).isFalse();
+
+        write(keysFile, 2, "security.jwt.signing-key-id=2025-01", "security.jwt.keys.default=" + SECRET);
+        assertThatThrownBy(keyStore::reload).isInstanceOf(IllegalStateException.class);
+        assertThat(keyStore.current()).isSameAs(loaded);
+
+        Files.delete(keysFile);
+        assertThatThrownBy(keyStore::reload).isInstanceOf(UncheckedIOException.class);
+        assertThat(keyStore.current()).isSameAs(loaded);
+    }
+
+    private static void write(Path keysFile, int version, String... lines) throws IOException {
+        Files.write(keysFile, List.of(lines));
+        Files.setLastModifiedTime(keysFile, FileTime.from(Instant.ofEpochSecond(version)));
+    }
+}
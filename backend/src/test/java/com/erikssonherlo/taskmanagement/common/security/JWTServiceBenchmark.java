@@ -0,0 +1,76 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-token verification cost of {@link JWTService}.
+ * <p>
+ * {@code perCallKeyAndParser} reproduces the previous implementation, which decoded the secret and built the key and
+ * the parser on every call; {@code sharedKeyAndParser} is the current one.
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.erikssonherlo.taskmanagement.common.security.JWTServiceBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    private static final String SECRET = "k38sm1LKwR4kMyhFgbyH1pKxczM+bqgqNU4YxD4G5QA=";
+
+    private JWTService jwtService;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService(new JWTKeyStore(new MockEnvironment().withProperty("security.jwt.secret", SECRET), ""),
+                3_600_000L, new TokenVersionRegistry(),
+                new RevokedTokenFilter(3_600_000L, 100_000, 0.001));
+        token = jwtService.generateToken(UserEntity.builder().id(1L).email("member@example.com").role(Role.MEMBER).build());
+    }
+
+    @Benchmark
+    public Claims perCallKeyAndParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public AuthenticatedUser sharedKeyAndParser() {
+        return jwtService.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JWTServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
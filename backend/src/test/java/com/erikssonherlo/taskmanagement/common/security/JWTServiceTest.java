@@ -0,0 +1,173 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JWTServiceTest {
+
+    private static final String SECRET = "k38sm1LKwR4kMyhFgbyH1pKxczM+bqgqNU4YxD4G5QA=";
+    private static final String NEW_SECRET = "Zm9vYmFyYmF6cXV4cXV1eGNvcmdlZ3JhdWx0Z2FycGx5d2FsZG8=";
+    private static final Long USER_ID = 7L;
+
+    private final TokenVersionRegistry tokenVersionRegistry = new TokenVersionRegistry();
+
+    private final RevokedTokenFilter revokedTokenFilter = new RevokedTokenFilter(60_000L, 1_000, 0.001);
+
+    private JWTService jwtService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = service(configuredKeyStore(), 60_000L);
+    }
+
+    @Test
+    void parseToken_buildsPrincipalFromClaims() {
+        String token = jwtService.generateToken(createUser("manager@example.com", Role.MANAGER));
+
+        AuthenticatedUser principal = jwtService.parseToken(token);
+
+        assertThat(principal).isEqualTo(new AuthenticatedUser(USER_ID, "manager@example.com", Role.MANAGER));
+        assertThat(principal.getName()).isEqualTo("manager@example.com");
+    }
+
+    @Test
+    void parseToken_rejectsTamperedToken() {
+        String token = jwtService.generateToken(createUser("member@example.com", Role.MEMBER));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.parseToken(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void parseToken_rejectsExpiredToken() {
+        JWTService expiring = service(configuredKeyStore(), -1_000L);
+        String token = expiring.generateToken(createUser("member@example.com", Role.MEMBER));
+
+        assertThatThrownBy(() -> jwtService.parseToken(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void rotation_throughKeysFile_keepsTokensValidUntilTheirKeyIsRemoved() throws IOException {
+        Path keysFile = tempDir.resolve("jwt-keys.properties");
+        writeKeys(keysFile, 1, "default", "security.jwt.keys.default=" + SECRET);
+        JWTKeyStore keyStore = new JWTKeyStore(new MockEnvironment(), keysFile.toString());
+        JWTService service = service(keyStore, 60_000L);
+        String oldToken = service.generateToken(createUser("member@example.com", Role.MEMBER));
+
+        // Steps 1 and 2: add the new key, then sign with it
+        writeKeys(keysFile, 2, "2025-01", "security.jwt.keys.default=" + SECRET, "security.jwt.keys.2025-01=" + NEW_SECRET);
+        assertThat(keyStore.reload()).isTrue();
+        String newToken = service.generateToken(createUser("member@example.com", Role.MEMBER));
+
+        assertThat(keyStore.current().keyIds()).containsExactlyInAnyOrder("default", "2025-01");
+        assertThat(service.parseToken(oldToken).email()).isEqualTo("member@example.com");
+        assertThat(service.parseToken(newToken).email()).isEqualTo("member@example.com");
+        // A token signed with the new key is not accepted by an instance that only knows the old one
+        assertThatThrownBy(() -> jwtService.parseToken(newToken)).isInstanceOf(JwtException.class);
+
+        // Step 3: remove the old key
+        writeKeys(keysFile, 3, "2025-01", "security.jwt.keys.2025-01=" + NEW_SECRET);
+        assertThat(keyStore.reload()).isTrue();
+
+        assertThatThrownBy(() -> service.parseToken(oldToken)).isInstanceOf(JwtException.class);
+        assertThat(service.parseToken(newToken).email()).isEqualTo("member@example.com");
+    }
+
+    @Test
+    void parseToken_acceptsTokensWithoutKeyId() {
+        String legacyToken = Jwts.builder()
+                .setSubject("admin@example.com")
+                .claim("role", "ADMIN")
+                .claim("uid", USER_ID)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(jwtService.parseToken(legacyToken)).isEqualTo(new AuthenticatedUser(USER_ID, "admin@example.com", Role.ADMIN));
+    }
+
+    @Test
+    void parseToken_rejectsTokensWithoutUserId() {
+        String emailOnlyToken = Jwts.builder()
+                .setSubject("admin@example.com")
+                .claim("role", "ADMIN")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtService.parseToken(emailOnlyToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void parseToken_rejectsTokensIssuedBeforeRevocation() {
+        String revoked = jwtService.generateToken(createUser("member@example.com", Role.MEMBER));
+        String otherUser = jwtService.generateToken(createUser("other@example.com", Role.MEMBER));
+
+        tokenVersionRegistry.revoke("member@example.com");
+        String reissued = jwtService.generateToken(createUser("member@example.com", Role.MANAGER));
+
+        assertThatThrownBy(() -> jwtService.parseToken(revoked))
+                .isInstanceOf(JwtException.class)
+                .hasMessageContaining("revoked");
+        assertThat(jwtService.parseToken(otherUser).email()).isEqualTo("other@example.com");
+        assertThat(jwtService.parseToken(reissued).role()).isEqualTo(Role.MANAGER);
+    }
+
+    @Test
+    void revoke_rejectsOnlyThatToken() {
+        String loggedOut = jwtService.generateToken(createUser("member@example.com", Role.MEMBER));
+        String otherSession = jwtService.generateToken(createUser("member@example.com", Role.MEMBER));
+
+        jwtService.revoke(loggedOut);
+
+        assertThatThrownBy(() -> jwtService.parseToken(loggedOut))
+                .isInstanceOf(JwtException.class)
+                .hasMessageContaining("revoked");
+        assertThat(jwtService.parseToken(otherSession).email()).isEqualTo("member@example.com");
+    }
+
+    private UserEntity createUser(String email, Role role) {
+        return UserEntity.builder()
+                .id(USER_ID)
+                .email(email)
+                .role(role)
+                .build();
+    }
+
+    private JWTService service(JWTKeyStore keyStore, long expirationMs) {
+        return new JWTService(keyStore, expirationMs, tokenVersionRegistry, revokedTokenFilter);
+    }
+
+    private static JWTKeyStore configuredKeyStore() {
+        return new JWTKeyStore(new MockEnvironment().withProperty("security.jwt.secret", SECRET), "");
+    }
+
+    // Each version gets its own modification time, as a reload only reads the file when it changed
+    private static void writeKeys(Path keysFile, int version, String signingKeyId, String... keys) throws IOException {
+        Files.write(keysFile, Stream.concat(Stream.of("security.jwt.signing-key-id=" + signingKeyId), Stream.of(keys)).toList());
+        Files.setLastModifiedTime(keysFile, FileTime.from(Instant.ofEpochSecond(version)));
+    }
+}
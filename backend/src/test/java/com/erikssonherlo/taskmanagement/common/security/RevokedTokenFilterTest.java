@@ -0,0 +1,89 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RevokedTokenFilterTest {
+
+    private static final long EXPIRATION_MS = 60_000L;
+
+    private final AtomicLong millis = new AtomicLong();
+
+    private final RevokedTokenFilter filter = new RevokedTokenFilter(EXPIRATION_MS, 1_000, 0.01, new MutableClock(millis));
+
+    @Test
+    void mightBeRevoked_isTrueForEveryRevokedToken() {
+        String[] revoked = new String[1_000];
+        for (int i = 0; i < revoked.length; i++) {
+            revoked[i] = UUID.randomUUID().toString();
+            filter.revoke(revoked[i]);
+        }
+
+        for (String tokenId : revoked) {
+            assertThat(filter.mightBeRevoked(tokenId)).isTrue();
+        }
+    }
+
+    @Test
+    void mightBeRevoked_staysNearFalsePositiveRate() {
+        for (int i = 0; i < 1_000; i++) {
+            filter.revoke(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightBeRevoked(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // Configured for 1%; allow for sampling noise
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void revokedTokens_areRememberedUntilTheyHaveExpired() {
+        String tokenId = UUID.randomUUID().toString();
+        millis.set(EXPIRATION_MS - 1);
+        filter.revoke(tokenId);
+
+        // Still within the lifetime of any token that was valid when it was revoked
+        millis.set(2 * EXPIRATION_MS - 2);
+        assertThat(filter.mightBeRevoked(tokenId)).isTrue();
+
+        millis.set(2 * EXPIRATION_MS);
+        assertThat(filter.mightBeRevoked(tokenId)).isFalse();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private final AtomicLong millis;
+
+        MutableClock(AtomicLong millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+}
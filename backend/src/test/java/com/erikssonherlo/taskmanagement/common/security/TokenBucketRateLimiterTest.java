@@ -0,0 +1,87 @@
+package com.erikssonherlo.taskmanagement.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final TokenBucketRateLimiter limiter =
+            new TokenBucketRateLimiter(5, Duration.ofMinutes(1), Duration.ofMinutes(10), 1_000, nanos::get);
+
+    @Test
+    void tryAcquire_allowsBurstUpToCapacity() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("user@example.com")).isZero();
+        }
+
+        // One token refills every 12 seconds
+        assertThat(limiter.tryAcquire("user@example.com")).isEqualTo(Duration.ofSeconds(12));
+    }
+
+    @Test
+    void tryAcquire_refillsOverTime() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user@example.com");
+        }
+
+        advance(Duration.ofSeconds(12));
+
+        assertThat(limiter.tryAcquire("user@example.com")).isZero();
+        assertThat(limiter.tryAcquire("user@example.com")).isPositive();
+    }
+
+    @Test
+    void tryAcquire_keepsKeysIndependent() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user@example.com");
+        }
+
+        assertThat(limiter.tryAcquire("user@example.com")).isPositive();
+        assertThat(limiter.tryAcquire("other@example.com")).isZero();
+    }
+
+    @Test
+    void idleBuckets_areEvicted() {
+        limiter.tryAcquire("user@example.com");
+        limiter.tryAcquire("other@example.com");
+
+        advance(Duration.ofMinutes(11));
+        limiter.cleanUp();
+
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void tryAcquire_grantsExactlyCapacityUnderContention() throws Exception {
+        TokenBucketRateLimiter concurrent =
+                new TokenBucketRateLimiter(100, Duration.ofHours(1), Duration.ofHours(1), 1_000);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 1_000; i++) {
+            executor.execute(() -> {
+                if (concurrent.tryAcquire("10.0.0.1").isZero()) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(100);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
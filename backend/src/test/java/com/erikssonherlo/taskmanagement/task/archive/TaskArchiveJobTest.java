@@ -0,0 +1,75 @@
+package com.erikssonherlo.taskmanagement.task.archive;
+
+import com.erikssonherlo.taskmanagement.task.repository.TaskArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskArchiveJobTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final TaskArchiveRepository repository = mock(TaskArchiveRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void run_archivesBatchesUntilOneIsIncomplete() {
+        when(repository.archiveBatch(any(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE, BATCH_SIZE, 40);
+
+        long archived = job(10).run();
+
+        assertThat(archived).isEqualTo(240);
+        verify(repository, times(3)).archiveBatch(any(), eq(BATCH_SIZE));
+        assertThat(meterRegistry.get("tasks.archive.archived").counter().count()).isEqualTo(240);
+        assertThat(meterRegistry.get("tasks.archive.batch").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("tasks.archive.last.run.archived").gauge().value()).isEqualTo(240);
+    }
+
+    @Test
+    void run_stopsAtBatchLimit() {
+        when(repository.archiveBatch(any(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE);
+
+        long archived = job(3).run();
+
+        assertThat(archived).isEqualTo(300);
+        verify(repository, times(3)).archiveBatch(any(), eq(BATCH_SIZE));
+    }
+
+    @Test
+    void run_archivesTasksCompletedBeforeTheConfiguredAge() {
+        ArgumentCaptor<LocalDateTime> completedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(repository.archiveBatch(completedBefore.capture(), eq(BATCH_SIZE))).thenReturn(0);
+
+        LocalDateTime start = LocalDateTime.now();
+        assertThat(job(10).run()).isZero();
+
+        assertThat(completedBefore.getValue())
+                .isBetween(start.minusDays(30), LocalDateTime.now().minusDays(30));
+        assertThat(meterRegistry.get("tasks.archive.last.run.archived").gauge().value()).isZero();
+    }
+
+    @Test
+    void run_stopsWhenInterrupted() {
+        when(repository.archiveBatch(any(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE);
+        TaskArchiveJob job = new TaskArchiveJob(repository, Duration.ofDays(30), BATCH_SIZE, 10, Duration.ofSeconds(10), meterRegistry);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThat(job.run()).isEqualTo(BATCH_SIZE);
+        } finally {
+            assertThat(Thread.interrupted()).isTrue();
+        }
+        verify(repository, times(1)).archiveBatch(any(), eq(BATCH_SIZE));
+    }
+
+    private TaskArchiveJob job(int maxBatches) {
+        return new TaskArchiveJob(repository, Duration.ofDays(30), BATCH_SIZE, maxBatches, Duration.ZERO, meterRegistry);
+    }
+}
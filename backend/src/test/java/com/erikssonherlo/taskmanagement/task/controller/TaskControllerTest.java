@@ -0,0 +1,73 @@
+package com.erikssonherlo.taskmanagement.task.controller;
+
+import com.erikssonherlo.taskmanagement.common.exception.GlobalExceptionHandler;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.service.TaskService;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Web layer of TaskController with the service mocked: request validation and the mapping of errors to responses.
+ * Bodies are written the way the frontend (frontend/src/services/TaskService.ts) sends them.
+ */
+class TaskControllerTest {
+
+    private static final AuthenticatedUser CURRENT_USER = new AuthenticatedUser(1L, "member@example.com", Role.MEMBER);
+
+    private final TaskService taskService = mock(TaskService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new TaskController(taskService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(CURRENT_USER, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateTask_withoutVersionIsBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/v1/tasks/7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void updateTask_withStaleVersionIsConflict() throws Exception {
+        when(taskService.updateTask(eq(7L), argThat(dto -> dto.version() == 3L), eq(CURRENT_USER)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(TaskEntity.class, 7L));
+
+        mockMvc.perform(patch("/api/v1/tasks/7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"DONE\",\"version\":3}"))
+                .andExpect(status().isConflict());
+    }
+}
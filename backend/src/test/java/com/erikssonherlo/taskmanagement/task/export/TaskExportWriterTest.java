@@ -0,0 +1,72 @@
+package com.erikssonherlo.taskmanagement.task.export;
+
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.model.TaskExportFormat;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final TaskExportWriter writer = new TaskExportWriter(objectMapper);
+
+    @Test
+    void ndjson_writesOneJsonObjectPerLine() throws IOException {
+        String output = export(TaskExportFormat.NDJSON, task(1L, "First", null), task(2L, "Second", null));
+
+        String[] lines = output.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], TaskDTO.class).title()).isEqualTo("First");
+        assertThat(objectMapper.readValue(lines[1], TaskDTO.class).id()).isEqualTo(2L);
+    }
+
+    @Test
+    void csv_writesHeaderAndEscapesFields() throws IOException {
+        String output = export(TaskExportFormat.CSV, task(1L, "Fix \"login\", again", "line1\nline2"));
+
+        assertThat(output).startsWith("id,title,description,status,priority,dueDate,assignedTo,createdBy,createdAt,updatedAt,version\n");
+        assertThat(output).contains("1,\"Fix \"\"login\"\", again\",\"line1\nline2\",TO_DO,HIGH,");
+        assertThat(output).endsWith("\n");
+    }
+
+    @Test
+    void csv_emptyStream_writesOnlyHeader() throws IOException {
+        String output = export(TaskExportFormat.CSV);
+
+        assertThat(output).isEqualTo("id,title,description,status,priority,dueDate,assignedTo,createdBy,createdAt,updatedAt,version\n");
+    }
+
+    private String export(TaskExportFormat format, TaskDTO... tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(Stream.of(tasks), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private TaskDTO task(Long id, String title, String description) {
+        return TaskDTO.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .status(TaskStatus.TO_DO)
+                .priority(TaskPriority.HIGH)
+                .dueDate(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .assignedTo("member@example.com")
+                .createdBy("manager@example.com")
+                .build();
+    }
+}
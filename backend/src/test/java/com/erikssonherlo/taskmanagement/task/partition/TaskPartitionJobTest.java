@@ -0,0 +1,75 @@
+package com.erikssonherlo.taskmanagement.task.partition;
+
+import com.erikssonherlo.taskmanagement.task.repository.TaskPartitionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskPartitionJobTest {
+
+    private static final long SIZE = 1_000;
+
+    private final TaskPartitionRepository repository = mock(TaskPartitionRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TaskPartitionJob job = new TaskPartitionJob(repository, SIZE, 3, meterRegistry);
+
+    @Test
+    void run_createsPartitionsUntilEnoughAreAhead() {
+        when(repository.findUpperBound()).thenReturn(5_000L);
+        when(repository.findLastReservedId()).thenReturn(4_200L);
+        when(repository.createPartition(anyLong(), anyLong())).thenReturn(true);
+
+        assertThat(job.run()).isEqualTo(3);
+
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).createPartition(5_000, 6_000);
+        inOrder.verify(repository).createPartition(6_000, 7_000);
+        inOrder.verify(repository).createPartition(7_000, 8_000);
+        verify(repository, times(3)).createPartition(anyLong(), anyLong());
+        assertThat(meterRegistry.get("tasks.partitions.created").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("tasks.partitions.headroom").gauge().value()).isEqualTo(3_800);
+    }
+
+    @Test
+    void run_createsNothingWhenEnoughAreAhead() {
+        when(repository.findUpperBound()).thenReturn(5_000L);
+        when(repository.findLastReservedId()).thenReturn(2_000L);
+
+        assertThat(job.run()).isZero();
+
+        verify(repository, never()).createPartition(anyLong(), anyLong());
+        assertThat(meterRegistry.get("tasks.partitions.headroom").gauge().value()).isEqualTo(3_000);
+    }
+
+    @Test
+    void run_doesNotCountPartitionsAnotherInstanceCreated() {
+        when(repository.findUpperBound()).thenReturn(5_000L);
+        when(repository.findLastReservedId()).thenReturn(3_500L);
+        when(repository.createPartition(5_000, 6_000)).thenReturn(false);
+        when(repository.createPartition(6_000, 7_000)).thenReturn(true);
+
+        assertThat(job.run()).isEqualTo(1);
+
+        verify(repository, times(2)).createPartition(anyLong(), anyLong());
+        assertThat(meterRegistry.get("tasks.partitions.created").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tasks.partitions.headroom").gauge().value()).isEqualTo(3_500);
+    }
+
+    @Test
+    void run_stopsAtTheFirstFailure() {
+        when(repository.findUpperBound()).thenReturn(5_000L);
+        when(repository.findLastReservedId()).thenReturn(4_500L);
+        when(repository.createPartition(anyLong(), anyLong())).thenReturn(true).thenThrow(new IllegalStateException("lock timeout"));
+
+        // Left to the scheduler; the next run starts after the partitions that were created
+        assertThatThrownBy(job::run).isInstanceOf(IllegalStateException.class);
+
+        verify(repository, times(2)).createPartition(anyLong(), anyLong());
+        assertThat(meterRegistry.get("tasks.partitions.created").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.erikssonherlo.taskmanagement.task.policy;
+
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TaskAccessPolicyTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_ID = 2L;
+    private static final Long ADMIN_ID = 3L;
+
+    private final TaskAccessPolicy policy = new TaskAccessPolicy();
+
+    private final UserEntity user = UserEntity.builder().id(USER_ID).email("user@example.com").role(Role.MEMBER).build();
+    private final UserEntity other = UserEntity.builder().id(OTHER_ID).email("other@example.com").role(Role.MEMBER).build();
+
+    // ---------------------- MEMBER ----------------------
+
+    @Test
+    void member_canViewAndUpdateAssignedTasks() {
+        TaskEntity assigned = task(other, user);
+
+        assertThat(policy.isAllowed(TaskAction.VIEW, assigned, USER_ID, Role.MEMBER)).isTrue();
+        assertThat(policy.isAllowed(TaskAction.UPDATE, assigned, USER_ID, Role.MEMBER)).isTrue();
+        assertThat(policy.isAllowed(TaskAction.DELETE, assigned, USER_ID, Role.MEMBER)).isFalse();
+    }
+
+    @Test
+    void member_canDeleteOwnSelfManagedTasks() {
+        assertThat(policy.isAllowed(TaskAction.DELETE, task(user, user), USER_ID, Role.MEMBER)).isTrue();
+    }
+
+    @Test
+    void member_cannotAccessTasksOfOthers() {
+        TaskEntity othersTask = task(user, other);
+
+        assertThat(policy.isAllowed(TaskAction.VIEW, othersTask, USER_ID, Role.MEMBER)).isFalse();
+        assertThatThrownBy(() -> policy.check(TaskAction.UPDATE, othersTask, USER_ID, Role.MEMBER))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("You can only update your own assigned tasks");
+    }
+
+    // ---------------------- ADMIN / MANAGER ----------------------
+
+    @Test
+    void manager_canAccessTasksThatAreNotSelfManaged() {
+        TaskEntity assignedByOther = task(other, user);
+
+        for (TaskAction action : TaskAction.values()) {
+            assertThat(policy.isAllowed(action, assignedByOther, OTHER_ID, Role.MANAGER)).isTrue();
+            assertThat(policy.isAllowed(action, assignedByOther, ADMIN_ID, Role.ADMIN)).isTrue();
+        }
+    }
+
+    @Test
+    void manager_canAccessOwnSelfManagedTasks() {
+        assertThat(policy.isAllowed(TaskAction.DELETE, task(user, user), USER_ID, Role.MANAGER)).isTrue();
+    }
+
+    @Test
+    void manager_cannotAccessSelfManagedTasksOfOthers() {
+        TaskEntity selfManaged = task(other, other);
+
+        assertThat(policy.isAllowed(TaskAction.VIEW, selfManaged, USER_ID, Role.ADMIN)).isFalse();
+        assertThatThrownBy(() -> policy.check(TaskAction.DELETE, selfManaged, USER_ID, Role.ADMIN))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("Cannot delete self-managed task of another user");
+    }
+
+    @Test
+    void manager_canAccessUnassignedTasks() {
+        assertThat(policy.isAllowed(TaskAction.UPDATE, task(other, null), USER_ID, Role.MANAGER)).isTrue();
+    }
+
+    private TaskEntity task(UserEntity createdBy, UserEntity assignedTo) {
+        return TaskEntity.builder().id(1L).createdBy(createdBy).assignedTo(assignedTo).build();
+    }
+}
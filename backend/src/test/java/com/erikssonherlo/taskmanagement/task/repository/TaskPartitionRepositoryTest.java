@@ -0,0 +1,87 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.common.config.JpaConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition creation on PostgreSQL with the Flyway migrations applied. Creating a partition must be safe to repeat,
+ * since every instance runs the partition job.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.postgresql.transactional-lock=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfiguration.class, TaskPartitionRepository.class})
+class TaskPartitionRepositoryTest {
+
+    private static final long SIZE = 1_000_000;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TaskPartitionRepository taskPartitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long upperBound;
+
+    @BeforeEach
+    void setUp() {
+        upperBound = taskPartitionRepository.findUpperBound();
+    }
+
+    @Test
+    void createPartition_attachesTheNextRange() {
+        assertThat(taskPartitionRepository.createPartition(upperBound, upperBound + SIZE)).isTrue();
+
+        assertThat(taskPartitionRepository.findUpperBound()).isEqualTo(upperBound + SIZE);
+        assertThat(partitionOf(upperBound)).isEqualTo("tasks_p" + upperBound);
+    }
+
+    @Test
+    void createPartition_leavesAnAttachedPartitionAlone() {
+        taskPartitionRepository.createPartition(upperBound, upperBound + SIZE);
+
+        // A second instance that read the same upper bound
+        assertThat(taskPartitionRepository.createPartition(upperBound, upperBound + SIZE)).isFalse();
+
+        assertThat(taskPartitionRepository.findUpperBound()).isEqualTo(upperBound + SIZE);
+    }
+
+    @Test
+    void createPartition_attachesATableThatAlreadyExists() {
+        jdbcTemplate.execute("CREATE TABLE tasks_p" + upperBound + " (LIKE tasks INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+
+        assertThat(taskPartitionRepository.createPartition(upperBound, upperBound + SIZE)).isTrue();
+
+        assertThat(taskPartitionRepository.findUpperBound()).isEqualTo(upperBound + SIZE);
+        assertThat(partitionOf(upperBound)).isEqualTo("tasks_p" + upperBound);
+    }
+
+    // The partition a row with the given id would be routed to
+    private String partitionOf(long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid" +
+                " WHERE i.inhparent = 'tasks'::regclass" +
+                " AND substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \\(''(\\d+)''\\)')::BIGINT <= ?" +
+                " ORDER BY substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \\(''(\\d+)''\\)')::BIGINT DESC LIMIT 1",
+                String.class, id);
+    }
+}
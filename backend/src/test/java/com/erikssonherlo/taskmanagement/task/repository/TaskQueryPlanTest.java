@@ -0,0 +1,286 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.common.config.JpaConfiguration;
+import com.erikssonherlo.taskmanagement.common.persistence.CodedEnum;
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.task.model.TaskCursor;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plan regression tests for the task read paths, on PostgreSQL with the Flyway migrations applied.
+ * The statements the repository sends are captured, prepared and explained as generic plans (the plans used for
+ * any parameter values), which must not read a partition of the tasks table holding rows sequentially, and must
+ * prune the partitions on the id when tasks are looked up by id.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.postgresql.transactional-lock=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfiguration.class, TaskQueryPlanTest.StatementCaptureConfiguration.class})
+class TaskQueryPlanTest {
+
+    private static final int TASK_COUNT = 50_000;
+    private static final int USER_COUNT = 100;
+    private static final int MANAGER_COUNT = 5;
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+    private static final String PREPARED_STATEMENT = "plan_check";
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCapture statementCapture;
+
+    private final TaskAccessPolicy accessPolicy = new TaskAccessPolicy();
+
+    private Long managerId;
+
+    private Long memberId;
+
+    private List<Long> memberTaskIds;
+
+    private List<String> populatedPartitions;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO users (email, first_name, last_name, password, role)
+                SELECT 'user' || g || '@example.com', 'First', 'Last', 'password',
+                       CASE WHEN g <= ? THEN ? ELSE ? END
+                FROM generate_series(1, ?) g
+                """, MANAGER_COUNT, Role.MANAGER.getCode(), Role.MEMBER.getCode(), USER_COUNT);
+
+        // Sequences are not rolled back with the test transactions: restart at the first id, as after V4
+        jdbcTemplate.execute("SELECT setval('tasks_id_seq', 50, false)");
+
+        // Managers create every task, each assigned to a member, one in ten unassigned and one in ten deleted
+        jdbcTemplate.update("""
+                WITH u AS (SELECT array_agg(id ORDER BY id) AS ids FROM users)
+                INSERT INTO tasks (title, status, priority, due_date, assigned_to_id, created_by_id,
+                                   created_at, updated_at, deleted_at)
+                SELECT 'Task ' || g,
+                       (%s)[1 + g %% %d],
+                       (%s)[1 + g %% %d],
+                       now() + g * interval '1 minute',
+                       CASE WHEN g %% 10 = 0 THEN NULL ELSE u.ids[? + 1 + g %% (? - ?)] END,
+                       u.ids[1 + g %% ?],
+                       now() - (? - g) * interval '1 minute',
+                       now() - (? - g) * interval '1 minute',
+                       CASE WHEN g %% 10 = 1 THEN now() END
+                FROM u, generate_series(1, ?) g
+                """.formatted(
+                        codes(TaskStatus.values()), TaskStatus.values().length,
+                        codes(TaskPriority.values()), TaskPriority.values().length),
+                MANAGER_COUNT, USER_COUNT, MANAGER_COUNT, MANAGER_COUNT, TASK_COUNT, TASK_COUNT, TASK_COUNT);
+
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE tasks");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+
+        managerId = jdbcTemplate.queryForObject("SELECT min(id) FROM users WHERE role = ?", Long.class, Role.MANAGER.getCode());
+        memberId = jdbcTemplate.queryForObject("SELECT min(id) FROM users WHERE role = ?", Long.class, Role.MEMBER.getCode());
+        memberTaskIds = jdbcTemplate.queryForList(
+                "SELECT id FROM tasks WHERE assigned_to_id = ? ORDER BY id LIMIT 10", Long.class, memberId);
+        // The seeded ids draw 50 at a time from tasks_id_seq, so they spread over the first two partitions
+        populatedPartitions = jdbcTemplate.queryForList(
+                "SELECT DISTINCT tableoid::regclass::text FROM tasks", String.class);
+        assertThat(populatedPartitions).hasSizeGreaterThan(1);
+
+        statementCapture.clear();
+    }
+
+    @Test
+    void memberPage_readsIndexes() {
+        taskRepository.findPage(visible(memberId, Role.MEMBER), newestFirst());
+
+        // Page query + count query
+        assertThat(statementCapture.statements()).hasSize(2);
+        assertNoSequentialScan(statementCapture.statements());
+    }
+
+    @Test
+    void memberPage_filteredByStatusAndPriority_readsIndexes() {
+        Specification<TaskEntity> spec = visible(memberId, Role.MEMBER)
+                .and(TaskSpecifications.hasStatus(TaskStatus.IN_PROGRESS))
+                .and(TaskSpecifications.hasPriority(TaskPriority.HIGH));
+
+        taskRepository.findPage(spec, newestFirst());
+
+        assertNoSequentialScan(statementCapture.statements());
+    }
+
+    @Test
+    void managerPage_readsCreatedAtIndex() {
+        taskRepository.findPage(visible(managerId, Role.MANAGER), newestFirst());
+
+        // Counting every visible task reads the whole table by nature, so only the page query is checked
+        assertNoSequentialScan(statementCapture.statements().subList(0, 1));
+    }
+
+    @Test
+    void scroll_readsKeysetIndexes() {
+        TaskCursor after = new TaskCursor(TaskSortKey.DUE_DATE, LocalDateTime.now(), 1L);
+
+        taskRepository.findSliceAfter(visible(memberId, Role.MEMBER), TaskSortKey.DUE_DATE, after, 20);
+        taskRepository.findSliceAfter(visible(managerId, Role.MANAGER), TaskSortKey.DUE_DATE, after, 20);
+        taskRepository.findSliceAfter(visible(memberId, Role.MEMBER), TaskSortKey.UPDATED_AT, null, 20);
+        taskRepository.findSliceAfter(visible(managerId, Role.MANAGER), TaskSortKey.UPDATED_AT, null, 20);
+
+        assertThat(statementCapture.statements()).hasSize(4);
+        assertNoSequentialScan(statementCapture.statements());
+    }
+
+    @Test
+    void bulkOperations_readPrimaryKey() {
+        Specification<TaskEntity> allowed = accessPolicy.specification(TaskAction.UPDATE, memberId, Role.MEMBER);
+
+        taskRepository.findAccess(memberTaskIds, allowed);
+        taskRepository.updateStatus(memberTaskIds, allowed, TaskStatus.DONE);
+        taskRepository.softDelete(memberTaskIds,
+                accessPolicy.specification(TaskAction.DELETE, memberId, Role.MEMBER));
+
+        assertThat(statementCapture.statements()).hasSize(3);
+        assertNoSequentialScan(statementCapture.statements());
+    }
+
+    @Test
+    void byIdStatements_prunePartitionsById() {
+        Long taskId = memberTaskIds.get(0);
+        Specification<TaskEntity> allowed = accessPolicy.specification(TaskAction.UPDATE, memberId, Role.MEMBER);
+
+        taskRepository.findById(taskId);
+        taskRepository.findDTOById(taskId);
+        taskRepository.update(taskId, 0L, accessPolicy.sqlCondition(TaskAction.UPDATE, Role.MEMBER), memberId,
+                Map.of("title", "Renamed"));
+        taskRepository.findAccess(memberTaskIds, allowed);
+        taskRepository.updateStatus(memberTaskIds, allowed, TaskStatus.DONE);
+
+        assertThat(statementCapture.statements()).hasSize(5).allSatisfy(sql ->
+                assertThat(genericPlan(sql)).as("Plan of %s", sql).contains("Subplans Removed"));
+    }
+
+    private Specification<TaskEntity> visible(Long userId, Role role) {
+        return accessPolicy.specification(TaskAction.VIEW, userId, role);
+    }
+
+    private PageRequest newestFirst() {
+        return PageRequest.of(0, 20, Sort.by("createdAt").descending());
+    }
+
+    // Empty partitions are scanned sequentially at no cost, so only the partitions holding rows are checked
+    private void assertNoSequentialScan(List<String> statements) {
+        assertThat(statements).isNotEmpty().allSatisfy(sql -> {
+            String plan = genericPlan(sql);
+            assertThat(populatedPartitions).allSatisfy(partition ->
+                    assertThat(plan).as("Plan of %s", sql).doesNotContain("Seq Scan on " + partition + " "));
+        });
+    }
+
+    // The generic plan does not depend on the values, so every parameter is explained as NULL
+    private String genericPlan(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder statement = new StringBuilder();
+        int parameters = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(statement, "\\$" + ++parameters);
+        }
+        matcher.appendTail(statement);
+
+        jdbcTemplate.execute("PREPARE " + PREPARED_STATEMENT + " AS " + statement);
+        try {
+            String arguments = parameters == 0 ? "" : "(" + String.join(",", Collections.nCopies(parameters, "NULL")) + ")";
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE " + PREPARED_STATEMENT + arguments, String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE " + PREPARED_STATEMENT);
+        }
+    }
+
+    private static String codes(CodedEnum[] values) {
+        return Arrays.stream(values)
+                .map(value -> String.valueOf(value.getCode()))
+                .collect(Collectors.joining(",", "ARRAY[", "]::SMALLINT[]"));
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares.
+     */
+    static class StatementCapture implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> statements() {
+            return new ArrayList<>(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementCaptureCustomizer(StatementCapture statementCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCapture);
+        }
+    }
+}
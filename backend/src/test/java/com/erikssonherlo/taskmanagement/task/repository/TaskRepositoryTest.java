@@ -0,0 +1,398 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.common.config.JpaConfiguration;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.mapper.TaskMapper;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.task.model.TaskCursor;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement-count regression tests for the task read paths.
+ * Listings must not load the creator and assignee of every task one by one.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:tasks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfiguration.class)
+class TaskRepositoryTest {
+
+    private static final int TASK_COUNT = 1_000;
+    private static final int USER_COUNT = 50;
+    private static final String MANAGER_EMAIL = "manager@example.com";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final TaskMapper taskMapper = new TaskMapper();
+
+    private final TaskAccessPolicy accessPolicy = new TaskAccessPolicy();
+
+    private Statistics statistics;
+
+    private UserEntity manager;
+
+    private final List<UserEntity> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        manager = userRepository.save(createUser(MANAGER_EMAIL, Role.MANAGER));
+        for (int i = 0; i < USER_COUNT; i++) {
+            members.add(userRepository.save(createUser("member" + i + "@example.com", Role.MEMBER)));
+        }
+
+        List<TaskEntity> tasks = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            UserEntity member = members.get(i % USER_COUNT);
+            TaskEntity task = createTask("Task " + i, manager, member);
+            task.setDueDate(LocalDateTime.now().plusDays(i));
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void managerPage_mapsThousandTasksWithBoundedStatements() {
+        Pageable pageable = PageRequest.of(0, TASK_COUNT, Sort.by("createdAt").descending());
+
+        List<TaskDTO> result = taskRepository
+                .findPage(accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER), pageable)
+                .getContent();
+
+        assertThat(result).hasSize(TASK_COUNT);
+        assertThat(result).allSatisfy(task -> {
+            assertThat(task.createdBy()).isEqualTo(MANAGER_EMAIL);
+            assertThat(task.assignedTo()).startsWith("member");
+        });
+        // Page query + count query, independent of the number of tasks
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void pages_withEqualCreationTimes_neitherRepeatNorSkipTasks() {
+        entityManager.createQuery("UPDATE TaskEntity t SET t.createdAt = :createdAt")
+                .setParameter("createdAt", LocalDateTime.of(2025, 1, 1, 0, 0))
+                .executeUpdate();
+        Specification<TaskEntity> visible = accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER);
+        Sort sort = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page < TASK_COUNT / 100; page++) {
+            taskRepository.findPage(visible, PageRequest.of(page, 100, sort)).forEach(task -> ids.add(task.id()));
+        }
+
+        assertThat(ids).hasSize(TASK_COUNT).doesNotHaveDuplicates();
+        assertThat(ids).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void memberPage_mapsTasksWithBoundedStatements() {
+        Pageable pageable = PageRequest.of(0, TASK_COUNT, Sort.by("createdAt").descending());
+
+        List<TaskDTO> result = taskRepository
+                .findPage(accessPolicy.specification(TaskAction.VIEW, members.get(0).getId(), Role.MEMBER), pageable)
+                .getContent();
+
+        assertThat(result).hasSize(TASK_COUNT / USER_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void scrollSlice_mapsThousandTasksInOneStatement() {
+        List<TaskDTO> result = taskRepository
+                .findSliceAfter(accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER), TaskSortKey.DUE_DATE, null, TASK_COUNT);
+
+        assertThat(result).hasSize(TASK_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exportStream_readsAllTasksWithoutManagingEntities() {
+        try (Stream<TaskDTO> stream = taskRepository
+                .streamAll(accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER), 100)) {
+            List<Long> ids = stream.map(TaskDTO::id).toList();
+
+            assertThat(ids).hasSize(TASK_COUNT).isSorted();
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void insertAll_persistsTasksInBatches() {
+        UserEntity member = userRepository.getReferenceById(members.get(0).getId());
+        UserEntity creator = userRepository.getReferenceById(manager.getId());
+        List<TaskEntity> tasks = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            tasks.add(createTask("Bulk " + i, creator, member));
+        }
+        statistics.clear();
+
+        List<TaskEntity> saved = taskRepository.insertAll(tasks, 50);
+
+        assertThat(saved).allSatisfy(task -> assertThat(task.getId()).isNotNull());
+        assertThat(entityManager.contains(saved.get(0))).isFalse();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // One nextval per block of 50 ids and one INSERT statement per batch of 50 rows
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3 + 3);
+        assertThat(taskRepository.count()).isEqualTo(TASK_COUNT + 120);
+    }
+
+    @Test
+    void singleInserts_shareOneSequenceCallPerBlock() {
+        UserEntity member = userRepository.getReferenceById(members.get(0).getId());
+        UserEntity creator = userRepository.getReferenceById(manager.getId());
+        statistics.clear();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(taskRepository.save(createTask("Single " + i, creator, member)).getId());
+        }
+
+        assertThat(ids).doesNotHaveDuplicates();
+        // Ids come from the block already reserved in memory; no INSERT has been flushed yet
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void entityMapping_loadsCreatorsAndAssigneesInOneBatch() {
+        List<TaskDTO> result = taskRepository.findAll().stream()
+                .map(taskMapper::toDTO)
+                .toList();
+
+        assertThat(result).hasSize(TASK_COUNT);
+        // The emails are not stored on the task: task query + one batch for the distinct users
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void projection_joinsEmailsAndKeepsUnassignedTasks() {
+        TaskEntity unassigned = taskRepository.save(createTask("Unassigned", manager, null));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        TaskDTO result = taskRepository.findDTOById(unassigned.getId()).orElseThrow();
+
+        assertThat(result.createdBy()).isEqualTo(MANAGER_EMAIL);
+        assertThat(result.assignedTo()).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(taskRepository.findPage(accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER),
+                PageRequest.of(0, 2 * TASK_COUNT)).getContent()).hasSize(TASK_COUNT + 1);
+    }
+
+    @Test
+    void initializingUsers_isBatched() {
+        List<String> assigneeNames = taskRepository.findAll().stream()
+                .map(task -> task.getAssignedTo().getFirstName())
+                .toList();
+
+        assertThat(assigneeNames).hasSize(TASK_COUNT);
+        // Task query + one batch for the distinct assignees, instead of one SELECT per task
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void visibility_isAppliedInTheQuery() {
+        UserEntity member = members.get(0);
+        taskRepository.saveAll(List.of(
+                createTask("Self-managed by member", member, member),
+                createTask("Self-managed by manager", manager, manager)));
+        entityManager.flush();
+        entityManager.clear();
+
+        Specification<TaskEntity> managerView = accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER);
+        Specification<TaskEntity> memberView = accessPolicy.specification(TaskAction.VIEW, member.getId(), Role.MEMBER);
+        Specification<TaskEntity> memberDelete = accessPolicy.specification(TaskAction.DELETE, member.getId(), Role.MEMBER);
+        Pageable pageable = PageRequest.of(0, 2 * TASK_COUNT);
+
+        assertThat(taskRepository.findPage(managerView, pageable).getContent())
+                .hasSize(TASK_COUNT + 1)
+                .extracting(TaskDTO::title)
+                .contains("Self-managed by manager")
+                .doesNotContain("Self-managed by member");
+        assertThat(taskRepository.findPage(memberView, pageable).getContent())
+                .hasSize(TASK_COUNT / USER_COUNT + 1)
+                .extracting(TaskDTO::title)
+                .doesNotContain("Self-managed by manager");
+        assertThat(taskRepository.findPage(memberDelete, pageable).getContent())
+                .extracting(TaskDTO::title)
+                .containsExactly("Self-managed by member");
+    }
+
+    @Test
+    void scrollSlice_continuesAfterCursor() {
+        Specification<TaskEntity> managerView = accessPolicy.specification(TaskAction.VIEW, manager.getId(), Role.MANAGER);
+
+        List<TaskDTO> first = taskRepository.findSliceAfter(managerView, TaskSortKey.DUE_DATE, null, 10);
+        TaskDTO last = first.get(first.size() - 1);
+        List<TaskDTO> second = taskRepository.findSliceAfter(managerView, TaskSortKey.DUE_DATE,
+                new TaskCursor(TaskSortKey.DUE_DATE, last.dueDate(), last.id()), 10);
+
+        assertThat(second).hasSize(10);
+        assertThat(second).noneMatch(first::contains);
+        assertThat(second.get(0).dueDate()).isAfterOrEqualTo(last.dueDate());
+    }
+
+    @Test
+    void bulkStatusUpdate_checksAccessAndUpdatesInTwoStatements() {
+        UserEntity member = members.get(0);
+        TaskEntity own = createTask("Own", manager, member);
+        TaskEntity selfManaged = createTask("Self-managed by member", member, member);
+        taskRepository.saveAll(List.of(own, selfManaged));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Long> ids = List.of(own.getId(), selfManaged.getId(), -1L);
+        Map<Long, Boolean> access = taskRepository.findAccess(ids,
+                accessPolicy.specification(TaskAction.UPDATE, manager.getId(), Role.MANAGER));
+        int updated = taskRepository.updateStatus(List.of(own.getId(), selfManaged.getId()),
+                accessPolicy.specification(TaskAction.UPDATE, manager.getId(), Role.MANAGER), TaskStatus.DONE);
+
+        assertThat(access).containsOnly(Map.entry(own.getId(), true), Map.entry(selfManaged.getId(), false));
+        assertThat(updated).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(taskRepository.findById(own.getId())).get()
+                .extracting(TaskEntity::getStatus).isEqualTo(TaskStatus.DONE);
+        assertThat(taskRepository.findById(selfManaged.getId())).get()
+                .extracting(TaskEntity::getStatus).isEqualTo(TaskStatus.TO_DO);
+    }
+
+    @Test
+    void bulkSoftDelete_hidesTasksInOneStatement() {
+        UserEntity member = members.get(0);
+        List<TaskEntity> tasks = taskRepository.saveAll(List.of(
+                createTask("Self-managed 1", member, member),
+                createTask("Self-managed 2", member, member)));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Long> ids = tasks.stream().map(TaskEntity::getId).toList();
+        int deleted = taskRepository.softDelete(ids,
+                accessPolicy.specification(TaskAction.DELETE, member.getId(), Role.MEMBER));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(taskRepository.findAllById(ids)).isEmpty();
+        assertThat(taskRepository.count()).isEqualTo(TASK_COUNT);
+    }
+
+    @Test
+    void delete_softDeletesVersionedEntity() {
+        TaskEntity task = taskRepository.save(createTask("To delete", manager, members.get(0)));
+        entityManager.flush();
+        entityManager.clear();
+
+        taskRepository.delete(taskRepository.findById(task.getId()).orElseThrow());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(taskRepository.findById(task.getId())).isEmpty();
+    }
+
+    @Test
+    void sqlCondition_matchesTheSameTasksAsTheCriteriaPredicate() {
+        UserEntity member = members.get(0);
+        taskRepository.saveAll(List.of(
+                createTask("Manager self-managed", manager, manager),
+                createTask("Member self-managed", member, member),
+                createTask("Unassigned", manager, null)));
+        entityManager.flush();
+
+        for (TaskAction action : TaskAction.values()) {
+            for (UserEntity user : List.of(manager, member, members.get(1))) {
+                List<Long> expected = idsMatchingPredicate(action, user.getId(), user.getRole());
+
+                @SuppressWarnings("unchecked")
+                List<Number> actual = entityManager.createNativeQuery(
+                                "SELECT id FROM tasks WHERE " + accessPolicy.sqlCondition(action, user.getRole()))
+                        .setParameter(TaskAccessPolicy.CURRENT_USER_ID_PARAM, user.getId())
+                        .getResultList();
+
+                assertThat(actual).map(Number::longValue)
+                        .as("%s as %s", action, user.getRole())
+                        .containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    private List<Long> idsMatchingPredicate(TaskAction action, Long userId, Role role) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<TaskEntity> task = query.from(TaskEntity.class);
+        query.select(task.get("id")).where(accessPolicy.predicate(action, task, cb, userId, role));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private TaskEntity createTask(String title, UserEntity createdBy, UserEntity assignedTo) {
+        return TaskEntity.builder()
+                .title(title)
+                .status(TaskStatus.TO_DO)
+                .priority(TaskPriority.MEDIUM)
+                .dueDate(LocalDateTime.now())
+                .createdBy(createdBy)
+                .assignedTo(assignedTo)
+                .build();
+    }
+
+    private UserEntity createUser(String email, Role role) {
+        return UserEntity.builder()
+                .email(email)
+                .firstName("First")
+                .lastName("Last")
+                .password("password")
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,158 @@
+package com.erikssonherlo.taskmanagement.task.repository;
+
+import com.erikssonherlo.taskmanagement.common.config.JpaConfiguration;
+import com.erikssonherlo.taskmanagement.task.dto.TaskDTO;
+import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement-count regression tests for the task update, which is written in PostgreSQL-only SQL that the H2 database
+ * of {@link TaskRepositoryTest} cannot run. Runs on PostgreSQL with the Flyway migrations applied.
+ * A PATCH must update the task and read it back in a single statement.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.flyway.postgresql.transactional-lock=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfiguration.class)
+class TaskUpdateStatementTest {
+
+    private static final String MANAGER_EMAIL = "manager@example.com";
+    private static final String MEMBER_EMAIL = "member0@example.com";
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final TaskAccessPolicy accessPolicy = new TaskAccessPolicy();
+
+    private Statistics statistics;
+
+    private UserEntity manager;
+
+    private UserEntity member;
+
+    private UserEntity otherMember;
+
+    @BeforeEach
+    void setUp() {
+        manager = userRepository.save(createUser(MANAGER_EMAIL, Role.MANAGER));
+        member = userRepository.save(createUser(MEMBER_EMAIL, Role.MEMBER));
+        otherMember = userRepository.save(createUser("member1@example.com", Role.MEMBER));
+        entityManager.flush();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void update_returnsTheUpdatedTaskInOneStatementAndChecksVersion() {
+        TaskEntity task = save(createTask("Original", manager, member));
+        String managerUpdate = accessPolicy.sqlCondition(TaskAction.UPDATE, Role.MANAGER);
+
+        Optional<TaskDTO> updated = taskRepository.update(task.getId(), 0L, managerUpdate, manager.getId(),
+                Map.of("title", "Renamed", "status", TaskStatus.DONE));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(updated).hasValueSatisfying(result -> {
+            assertThat(result.id()).isEqualTo(task.getId());
+            assertThat(result.title()).isEqualTo("Renamed");
+            assertThat(result.status()).isEqualTo(TaskStatus.DONE);
+            assertThat(result.priority()).isEqualTo(TaskPriority.MEDIUM);
+            assertThat(result.assignedTo()).isEqualTo(MEMBER_EMAIL);
+            assertThat(result.createdBy()).isEqualTo(MANAGER_EMAIL);
+            assertThat(result.version()).isEqualTo(1L);
+        });
+
+        // The client still holds version 0, which is now stale
+        assertThat(taskRepository.update(task.getId(), 0L, managerUpdate, manager.getId(),
+                Map.of("title", "Lost update"))).isEmpty();
+        assertThat(taskRepository.findDTOById(task.getId()).orElseThrow().title()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void update_doesNotTouchTasksTheUserCannotUpdate() {
+        TaskEntity task = save(createTask("Assigned to member1", manager, otherMember));
+
+        Optional<TaskDTO> updated = taskRepository.update(task.getId(), null,
+                accessPolicy.sqlCondition(TaskAction.UPDATE, Role.MEMBER), member.getId(), Map.of("status", TaskStatus.DONE));
+
+        assertThat(updated).isEmpty();
+        assertThat(taskRepository.findDTOById(task.getId()).orElseThrow().status()).isEqualTo(TaskStatus.TO_DO);
+    }
+
+    @Test
+    void update_skipsDeletedTasks() {
+        TaskEntity task = save(createTask("Deleted", manager, member));
+        taskRepository.delete(taskRepository.findById(task.getId()).orElseThrow());
+        entityManager.flush();
+
+        assertThat(taskRepository.update(task.getId(), null, accessPolicy.sqlCondition(TaskAction.UPDATE, Role.MANAGER),
+                manager.getId(), Map.of("title", "Renamed"))).isEmpty();
+    }
+
+    private TaskEntity save(TaskEntity task) {
+        TaskEntity saved = taskRepository.save(task);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return saved;
+    }
+
+    private TaskEntity createTask(String title, UserEntity createdBy, UserEntity assignedTo) {
+        return TaskEntity.builder()
+                .title(title)
+                .status(TaskStatus.TO_DO)
+                .priority(TaskPriority.MEDIUM)
+                .dueDate(LocalDateTime.now())
+                .createdBy(createdBy)
+                .assignedTo(assignedTo)
+                .build();
+    }
+
+    private UserEntity createUser(String email, Role role) {
+        return UserEntity.builder()
+                .email(email)
+                .firstName("First")
+                .lastName("Last")
+                .password("password")
+                .role(role)
+                .build();
+    }
+}
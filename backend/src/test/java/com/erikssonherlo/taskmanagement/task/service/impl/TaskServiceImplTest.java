@@ -2,19 +2,32 @@ package com.erikssonherlo.taskmanagement.task.service.impl;
 
 import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceNotFoundException;
-import com.erikssonherlo.taskmanagement.common.security.JWTService;
+import com.erikssonherlo.taskmanagement.common.security.AuthenticatedUser;
 import com.erikssonherlo.taskmanagement.task.dto.*;
 import com.erikssonherlo.taskmanagement.task.entity.TaskEntity;
 import com.erikssonherlo.taskmanagement.task.mapper.TaskMapper;
+import com.erikssonherlo.taskmanagement.task.model.TaskAction;
+import com.erikssonherlo.taskmanagement.task.model.TaskCursor;
 import com.erikssonherlo.taskmanagement.task.model.TaskPriority;
+import com.erikssonherlo.taskmanagement.task.model.TaskSortKey;
 import com.erikssonherlo.taskmanagement.task.model.TaskStatus;
+import com.erikssonherlo.taskmanagement.task.policy.TaskAccessPolicy;
+import com.erikssonherlo.taskmanagement.task.repository.TaskArchiveRepository;
 import com.erikssonherlo.taskmanagement.task.repository.TaskRepository;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
 import com.erikssonherlo.taskmanagement.user.model.Role;
 import com.erikssonherlo.taskmanagement.user.repository.UserRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -31,19 +44,26 @@ class TaskServiceImplTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskArchiveRepository taskArchiveRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private TaskMapper taskMapper;
 
-    @Mock
-    private JWTService jwtService;
+    @Spy
+    private TaskAccessPolicy taskAccessPolicy = new TaskAccessPolicy();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @Captor
     private ArgumentCaptor<TaskEntity> taskCaptor;
 
-    private static final String JWT = "mocked.jwt.token";
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_ID = 2L;
     private static final String USER_EMAIL = "user@example.com";
     private static final String OTHER_EMAIL = "other@example.com";
 
@@ -56,17 +76,16 @@ class TaskServiceImplTest {
 
     @Test
     void createTaskForSelf_successful() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
         CreateTaskForSelfDTO dto = new CreateTaskForSelfDTO("Task Title", "Task Description", TaskPriority.MEDIUM, TaskStatus.TO_DO, LocalDateTime.now());
-        UserEntity user = createUser(USER_EMAIL, Role.MEMBER);
+        UserEntity user = createUser(USER_ID, USER_EMAIL, Role.MEMBER);
         TaskEntity taskEntity = TaskEntity.builder().build();
-        TaskDTO taskDTO = new TaskDTO(1L, "Task Title", "Task Description", TaskStatus.TO_DO, TaskPriority.MEDIUM, LocalDateTime.now(), USER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now());
-
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
+        TaskDTO taskDTO = new TaskDTO(1L, "Task Title", "Task Description", TaskStatus.TO_DO, TaskPriority.MEDIUM, LocalDateTime.now(), USER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now(), 0L);
         when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(user));
         when(taskRepository.save(any(TaskEntity.class))).thenReturn(taskEntity);
         when(taskMapper.toDTO(taskEntity)).thenReturn(taskDTO);
 
-        TaskDTO result = taskService.createTaskForSelf(dto, JWT);
+        TaskDTO result = taskService.createTaskForSelf(dto, currentUser);
 
         assertThat(result).isNotNull();
         assertThat(result.assignedTo()).isEqualTo(USER_EMAIL);
@@ -76,10 +95,10 @@ class TaskServiceImplTest {
 
     @Test
     void createTaskForSelf_userNotFound() {
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
         when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> taskService.createTaskForSelf(mock(CreateTaskForSelfDTO.class), JWT))
+        assertThatThrownBy(() -> taskService.createTaskForSelf(mock(CreateTaskForSelfDTO.class), currentUser))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("User");
     }
@@ -88,20 +107,18 @@ class TaskServiceImplTest {
 
     @Test
     void createTaskForOther_successful() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MANAGER);
         CreateTaskForOtherDTO dto = new CreateTaskForOtherDTO("Task Title", "Task Description", TaskPriority.HIGH, TaskStatus.TO_DO, LocalDateTime.now(), OTHER_EMAIL);
-        UserEntity manager = createUser(USER_EMAIL, Role.MANAGER);
-        UserEntity assignedUser = createUser(OTHER_EMAIL, Role.MEMBER);
+        UserEntity manager = createUser(USER_ID, USER_EMAIL, Role.MANAGER);
+        UserEntity assignedUser = createUser(OTHER_ID, OTHER_EMAIL, Role.MEMBER);
         TaskEntity taskEntity = TaskEntity.builder().build();
-        TaskDTO taskDTO = new TaskDTO(1L, "Task Title", "Task Description", TaskStatus.TO_DO, TaskPriority.HIGH, LocalDateTime.now(), OTHER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now());
-
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.MANAGER);
+        TaskDTO taskDTO = new TaskDTO(1L, "Task Title", "Task Description", TaskStatus.TO_DO, TaskPriority.HIGH, LocalDateTime.now(), OTHER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now(), 0L);
         when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(manager));
         when(userRepository.findByEmail(OTHER_EMAIL)).thenReturn(Optional.of(assignedUser));
         when(taskRepository.save(any(TaskEntity.class))).thenReturn(taskEntity);
         when(taskMapper.toDTO(taskEntity)).thenReturn(taskDTO);
 
-        TaskDTO result = taskService.createTaskForOther(dto, JWT);
+        TaskDTO result = taskService.createTaskForOther(dto, currentUser);
 
         assertThat(result).isNotNull();
         assertThat(result.assignedTo()).isEqualTo(OTHER_EMAIL);
@@ -109,17 +126,15 @@ class TaskServiceImplTest {
 
     @Test
     void createTaskForOther_memberCannotAssign() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
         CreateTaskForOtherDTO dto = new CreateTaskForOtherDTO(
                 "Task Title", "Task Description", TaskPriority.HIGH, TaskStatus.TO_DO, LocalDateTime.now(), OTHER_EMAIL
         );
 
-        UserEntity memberUser = createUser(USER_EMAIL, Role.MEMBER);
-
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.MEMBER);
+        UserEntity memberUser = createUser(USER_ID, USER_EMAIL, Role.MEMBER);
         when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(memberUser)); // ✅ Aquí el mock correcto
 
-        assertThatThrownBy(() -> taskService.createTaskForOther(dto, JWT))
+        assertThatThrownBy(() -> taskService.createTaskForOther(dto, currentUser))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("Members are not allowed");
     }
@@ -127,121 +142,332 @@ class TaskServiceImplTest {
 
     @Test
     void createTaskForOther_roleMissingInToken() {
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(null);
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, null);
 
-        assertThatThrownBy(() -> taskService.createTaskForOther(mock(CreateTaskForOtherDTO.class), JWT))
+        assertThatThrownBy(() -> taskService.createTaskForOther(mock(CreateTaskForOtherDTO.class), currentUser))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Role not found");
     }
 
+    // ---------------------- BULK CREATE ----------------------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createTasksForOthers_resolvesAssigneesOnceAndReportsEachItem() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MANAGER);
+        String missingEmail = "missing@example.com";
+        List<CreateTaskForOtherDTO> dtos = List.of(
+                new CreateTaskForOtherDTO("Task 1", null, TaskPriority.HIGH, TaskStatus.TO_DO, LocalDateTime.now(), OTHER_EMAIL),
+                new CreateTaskForOtherDTO("Task 2", null, TaskPriority.HIGH, TaskStatus.TO_DO, LocalDateTime.now(), missingEmail),
+                new CreateTaskForOtherDTO("", null, TaskPriority.LOW, TaskStatus.TO_DO, LocalDateTime.now(), OTHER_EMAIL)
+        );
+        TaskDTO taskDTO = TaskDTO.builder().id(1L).title("Task 1").assignedTo(OTHER_EMAIL).createdBy(USER_EMAIL).build();
+        when(userRepository.findAllByEmailIn(any()))
+                .thenReturn(List.of(createUser(USER_ID, USER_EMAIL, Role.MANAGER), createUser(OTHER_ID, OTHER_EMAIL, Role.MEMBER)));
+        when(taskRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(taskMapper.toDTO(any(TaskEntity.class))).thenReturn(taskDTO);
+
+        List<BulkTaskResultDTO> results = taskService.createTasksForOthers(dtos, currentUser);
+
+        assertThat(results).extracting(BulkTaskResultDTO::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BulkTaskResultDTO::success).containsExactly(true, false, false);
+        assertThat(results.get(0).task()).isEqualTo(taskDTO);
+        assertThat(results.get(1).error()).contains(missingEmail);
+        assertThat(results.get(2).error()).isEqualTo("Title is required");
+
+        ArgumentCaptor<Collection<String>> emails = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository).findAllByEmailIn(emails.capture());
+        assertThat(emails.getValue()).containsExactlyInAnyOrder(USER_EMAIL, OTHER_EMAIL, missingEmail);
+        verify(userRepository, never()).findByEmail(any());
+
+        ArgumentCaptor<List<TaskEntity>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).insertAll(inserted.capture(), anyInt());
+        assertThat(inserted.getValue()).singleElement()
+                .satisfies(task -> assertThat(task.getAssignedTo().getEmail()).isEqualTo(OTHER_EMAIL));
+    }
+
+    @Test
+    void createTasksForOthers_memberCannotAssign() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+
+        assertThatThrownBy(() -> taskService.createTasksForOthers(List.of(mock(CreateTaskForOtherDTO.class)), currentUser))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("Members are not allowed");
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void createTasksForOthers_rejectsOversizedRequest() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.ADMIN);
+        List<CreateTaskForOtherDTO> dtos = Collections.nCopies(1001, mock(CreateTaskForOtherDTO.class));
+
+        assertThatThrownBy(() -> taskService.createTasksForOthers(dtos, currentUser))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 1000");
+    }
+
     // ---------------------- GET ALL TASKS ----------------------
 
     @Test
     void getAllTasks_asMember_onlyOwnTasks() {
-        UserEntity member = createUser(USER_EMAIL, Role.MEMBER);
-        TaskEntity task1 = TaskEntity.builder().assignedTo(member).build();
-        TaskDTO taskDTO1 = new TaskDTO(1L, "Task", "Desc", TaskStatus.TO_DO, TaskPriority.MEDIUM, LocalDateTime.now(), USER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now());
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        TaskDTO taskDTO1 = new TaskDTO(1L, "Task", "Desc", TaskStatus.TO_DO, TaskPriority.MEDIUM, LocalDateTime.now(), USER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        when(taskRepository.findPage(any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(taskDTO1)));
+
+        Page<TaskDTO> result = taskService.getAllTasks(currentUser, Optional.empty(), Optional.empty(), 0, 10);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).assignedTo()).isEqualTo(USER_EMAIL);
+        verify(taskAccessPolicy).specification(TaskAction.VIEW, USER_ID, Role.MEMBER);
+        verifyNoInteractions(taskMapper);
+    }
+
+    @Test
+    void getAllTasks_admin_usesVisibilitySpecificationAndPaging() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.ADMIN);
+        TaskDTO normalTask = new TaskDTO(2L, "Normal", "Desc", TaskStatus.TO_DO, TaskPriority.HIGH, LocalDateTime.now(), OTHER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        when(taskRepository.findPage(any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(normalTask)));
+
+        Page<TaskDTO> result = taskService.getAllTasks(currentUser, Optional.of(TaskStatus.TO_DO), Optional.of(TaskPriority.HIGH), 2, 10);
+
+        assertThat(result.getContent()).hasSize(1);
+        verify(taskAccessPolicy).specification(TaskAction.VIEW, USER_ID, Role.ADMIN);
+        verify(taskRepository).findPage(any(), eq(PageRequest.of(2, 10, Sort.by("createdAt").descending().and(Sort.by("id").descending()))));
+        verify(taskRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllTasks_rejectsOversizedOrInvalidPage() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.ADMIN);
+
+        assertThatThrownBy(() -> taskService.getAllTasks(currentUser, Optional.empty(), Optional.empty(), 0, 1_000_000))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("between 1 and 100");
+        assertThatThrownBy(() -> taskService.getAllTasks(currentUser, Optional.empty(), Optional.empty(), 0, 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> taskService.getAllTasks(currentUser, Optional.empty(), Optional.empty(), -1, 10))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(taskRepository);
+    }
+
+    // ---------------------- ARCHIVED TASKS ----------------------
+
+    @Test
+    void getArchivedTasks_asMember_usesViewConditionOnArchive() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        ArchivedTaskDTO archived = ArchivedTaskDTO.builder().id(1L).status(TaskStatus.DONE).assignedTo(USER_EMAIL).build();
+        when(taskArchiveRepository.findPage(any(), any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(archived)));
+
+        Page<ArchivedTaskDTO> result = taskService.getArchivedTasks(currentUser, 1, 20);
+
+        assertThat(result.getContent()).containsExactly(archived);
+        verify(taskArchiveRepository).findPage("(assigned_to_id = :currentUserId)", USER_ID, PageRequest.of(1, 20));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void getArchivedTasks_rejectsInvalidPageOrSize() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+
+        assertThatThrownBy(() -> taskService.getArchivedTasks(currentUser, 0, 1_000_000))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("between 1 and 100");
+        assertThatThrownBy(() -> taskService.getArchivedTasks(currentUser, -1, 20))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(taskArchiveRepository);
+    }
+
+    // ---------------------- SCROLL TASKS ----------------------
+
+    @Test
+    void scrollTasks_returnsCursorWhenMoreTasksExist() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MANAGER);
+        LocalDateTime dueDate = LocalDateTime.of(2025, 1, 1, 10, 0);
+        TaskDTO first = TaskDTO.builder().id(1L).dueDate(dueDate).build();
+        TaskDTO second = TaskDTO.builder().id(2L).dueDate(dueDate).build();
+        TaskDTO extra = TaskDTO.builder().id(3L).dueDate(dueDate.plusDays(1)).build();
+        when(taskRepository.findSliceAfter(any(), eq(TaskSortKey.DUE_DATE), isNull(), eq(3)))
+                .thenReturn(List.of(first, second, extra));
+
+        TaskScrollDTO result = taskService.scrollTasks(currentUser, Optional.empty(), Optional.empty(), TaskSortKey.DUE_DATE, null, 2);
+
+        assertThat(result.tasks()).hasSize(2);
+        assertThat(result.nextCursor()).isNotNull();
+        TaskCursor cursor = TaskCursor.decode(result.nextCursor());
+        assertThat(cursor.value()).isEqualTo(dueDate);
+        assertThat(cursor.id()).isEqualTo(2L);
+    }
 
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.MEMBER);
-        when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(member));
-        when(taskRepository.findAllByAssignedTo(member)).thenReturn(List.of(task1));
-        when(taskMapper.toDTO(task1)).thenReturn(taskDTO1);
+    @Test
+    void scrollTasks_lastSliceHasNoCursor() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        TaskCursor after = new TaskCursor(TaskSortKey.UPDATED_AT, LocalDateTime.of(2025, 1, 1, 10, 0), 7L);
+        TaskDTO task = TaskDTO.builder().id(8L).updatedAt(LocalDateTime.of(2025, 1, 2, 10, 0)).build();
+        when(taskRepository.findSliceAfter(any(), eq(TaskSortKey.UPDATED_AT), eq(after), eq(11)))
+                .thenReturn(List.of(task));
 
-        List<TaskDTO> result = taskService.getAllTasks(JWT, Optional.empty(), Optional.empty());
+        TaskScrollDTO result = taskService.scrollTasks(currentUser, Optional.empty(), Optional.empty(), TaskSortKey.UPDATED_AT, after.encode(), 10);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).assignedTo()).isEqualTo(USER_EMAIL);
+        assertThat(result.tasks()).hasSize(1);
+        assertThat(result.nextCursor()).isNull();
     }
 
     @Test
-    void getAllTasks_admin_excludesAutomanaged() {
-        UserEntity admin = createUser(USER_EMAIL, Role.ADMIN);
-        UserEntity otherUser = createUser(OTHER_EMAIL, Role.MEMBER);
+    void scrollTasks_rejectsOversizedSlice() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
 
-        TaskEntity automanaged = TaskEntity.builder().createdBy(otherUser).assignedTo(otherUser).build();
-        TaskEntity normalTask = TaskEntity.builder().createdBy(admin).assignedTo(otherUser).build();
+        assertThatThrownBy(() -> taskService.scrollTasks(currentUser, Optional.empty(), Optional.empty(), TaskSortKey.DUE_DATE, null, Integer.MAX_VALUE))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("between 1 and 100");
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void scrollTasks_rejectsCursorOfAnotherSort() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        String cursor = new TaskCursor(TaskSortKey.UPDATED_AT, LocalDateTime.now(), 1L).encode();
 
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.ADMIN);
-        when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(admin));
-        when(taskRepository.findAll()).thenReturn(List.of(automanaged, normalTask));
-        when(taskMapper.toDTO(normalTask)).thenReturn(new TaskDTO(2L, "Normal", "Desc", TaskStatus.TO_DO, TaskPriority.HIGH, LocalDateTime.now(), OTHER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now()));
+        assertThatThrownBy(() -> taskService.scrollTasks(currentUser, Optional.empty(), Optional.empty(), TaskSortKey.DUE_DATE, cursor, 10))
+                .isInstanceOf(BadRequestException.class);
+    }
 
-        List<TaskDTO> result = taskService.getAllTasks(JWT, Optional.empty(), Optional.empty());
+    @Test
+    void scrollTasks_rejectsMalformedCursor() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
 
-        assertThat(result).hasSize(1); // Only normalTask should be included
+        assertThatThrownBy(() -> taskService.scrollTasks(currentUser, Optional.empty(), Optional.empty(), TaskSortKey.DUE_DATE, "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
     }
 
     // ---------------------- UPDATE TASK ----------------------
 
     @Test
     void updateTask_memberCanUpdateStatus() {
-        UserEntity member = createUser(USER_EMAIL, Role.MEMBER);
-        TaskEntity task = TaskEntity.builder().id(1L).assignedTo(member).createdBy(member).status(TaskStatus.TO_DO).build();
-        UpdateTaskDTO dto = new UpdateTaskDTO(null, null, null, TaskStatus.DONE, null);
-
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.MEMBER);
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(taskRepository.save(task)).thenReturn(task);
-        when(taskMapper.toDTO(task)).thenReturn(new TaskDTO(1L, "Task", "Desc", TaskStatus.DONE, TaskPriority.MEDIUM, LocalDateTime.now(), USER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now()));
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        UpdateTaskDTO dto = new UpdateTaskDTO(null, null, null, TaskStatus.DONE, null, 0L);
+        when(taskRepository.update(eq(1L), eq(0L), any(), eq(USER_ID), anyMap())).thenReturn(Optional.of(new TaskDTO(1L, "Task", "Desc", TaskStatus.DONE, TaskPriority.MEDIUM, LocalDateTime.now(), USER_EMAIL, USER_EMAIL, LocalDateTime.now(), LocalDateTime.now(), 1L)));
 
-        TaskDTO result = taskService.updateTask(1L, dto, JWT);
+        TaskDTO result = taskService.updateTask(1L, dto, currentUser);
 
         assertThat(result.status()).isEqualTo(TaskStatus.DONE);
+        assertThat(result.version()).isEqualTo(1L);
+        verify(taskRepository).update(1L, 0L, "(assigned_to_id = :currentUserId)", USER_ID, Map.of("status", TaskStatus.DONE));
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).findDTOById(any());
+        verify(taskRepository, never()).findAccess(anyCollection(), any());
+    }
+
+    @Test
+    void updateTask_memberOnlyChangesStatus() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        UpdateTaskDTO dto = new UpdateTaskDTO("New title", null, TaskPriority.HIGH, TaskStatus.DONE, null, null);
+        when(taskRepository.update(eq(1L), isNull(), any(), any(), anyMap())).thenReturn(Optional.of(TaskDTO.builder().id(1L).build()));
+
+        taskService.updateTask(1L, dto, currentUser);
+
+        verify(taskRepository).update(eq(1L), isNull(), any(), any(), eq(Map.of("status", TaskStatus.DONE)));
     }
 
     @Test
     void updateTask_memberCannotUpdateIfNotAssigned() {
-        UserEntity member = createUser(USER_EMAIL, Role.MEMBER);
-        UserEntity other = createUser(OTHER_EMAIL, Role.MEMBER);
-        TaskEntity task = TaskEntity.builder().id(1L).assignedTo(other).createdBy(other).status(TaskStatus.TO_DO).build();
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        when(taskRepository.update(eq(1L), any(), any(), any(), anyMap())).thenReturn(Optional.empty());
+        when(taskRepository.findAccess(anyCollection(), any())).thenReturn(Map.of(1L, false));
 
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.MEMBER);
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        assertThatThrownBy(() -> taskService.updateTask(1L, new UpdateTaskDTO(null, null, null, TaskStatus.DONE, null, null), currentUser))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("You can only update your own assigned tasks");
+    }
 
-        assertThatThrownBy(() -> taskService.updateTask(1L, new UpdateTaskDTO(null, null, null, TaskStatus.DONE, null), JWT))
-                .isInstanceOf(AccessDeniedException.class);
+    @Test
+    void updateTask_staleVersionIsConflict() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MANAGER);
+        when(taskRepository.update(eq(1L), eq(3L), any(), any(), anyMap())).thenReturn(Optional.empty());
+        when(taskRepository.findAccess(anyCollection(), any())).thenReturn(Map.of(1L, true));
+
+        assertThatThrownBy(() -> taskService.updateTask(1L, new UpdateTaskDTO("Title", null, null, null, null, 3L), currentUser))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void updateTask_missingTaskIsNotFound() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.ADMIN);
+        when(taskRepository.update(eq(1L), any(), any(), any(), anyMap())).thenReturn(Optional.empty());
+        when(taskRepository.findAccess(anyCollection(), any())).thenReturn(Map.of());
+
+        assertThatThrownBy(() -> taskService.updateTask(1L, new UpdateTaskDTO("Title", null, null, null, null, null), currentUser))
+                .isInstanceOf(ResourceNotFoundException.class);
     }
 
     // ---------------------- DELETE TASK ----------------------
 
     @Test
     void deleteTask_memberCanDeleteOwnTask() {
-        UserEntity member = createUser(USER_EMAIL, Role.MEMBER);
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        UserEntity member = createUser(USER_ID, USER_EMAIL, Role.MEMBER);
         TaskEntity task = TaskEntity.builder().id(1L).assignedTo(member).createdBy(member).build();
-
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.MEMBER);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
 
-        taskService.deleteTask(1L, JWT);
+        taskService.deleteTask(1L, currentUser);
 
         verify(taskRepository).delete(task);
     }
 
     @Test
     void deleteTask_adminCannotDeleteAutomanagedOfOthers() {
-        UserEntity admin = createUser(USER_EMAIL, Role.ADMIN);
-        UserEntity other = createUser(OTHER_EMAIL, Role.MEMBER);
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.ADMIN);
+        UserEntity admin = createUser(USER_ID, USER_EMAIL, Role.ADMIN);
+        UserEntity other = createUser(OTHER_ID, OTHER_EMAIL, Role.MEMBER);
         TaskEntity automanaged = TaskEntity.builder().id(1L).assignedTo(other).createdBy(other).build();
-
-        when(jwtService.getUsernameFromToken(JWT)).thenReturn(USER_EMAIL);
-        when(jwtService.getRoleFromToken(JWT)).thenReturn(Role.ADMIN);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(automanaged));
 
-        assertThatThrownBy(() -> taskService.deleteTask(1L, JWT))
+        assertThatThrownBy(() -> taskService.deleteTask(1L, currentUser))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("Cannot delete self-managed task of another user");
     }
 
+    // ---------------------- BULK UPDATE / DELETE ----------------------
+
+    @Test
+    void updateTasksStatus_checksAccessOnceAndUpdatesInOneCall() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MANAGER);
+        when(taskRepository.findAccess(anyCollection(), any())).thenReturn(Map.of(1L, true, 2L, true));
+        when(taskRepository.updateStatus(anyCollection(), any(), eq(TaskStatus.DONE))).thenReturn(2);
+
+        int updated = taskService.updateTasksStatus(new BulkStatusUpdateDTO(List.of(1L, 2L, 1L), TaskStatus.DONE), currentUser);
+
+        assertThat(updated).isEqualTo(2);
+        verify(taskRepository).updateStatus(eq(Set.of(1L, 2L)), any(), eq(TaskStatus.DONE));
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateTasksStatus_rejectsWholeRequestIfOneTaskIsNotAllowed() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.MEMBER);
+        when(taskRepository.findAccess(anyCollection(), any())).thenReturn(Map.of(1L, true, 2L, false));
+
+        assertThatThrownBy(() -> taskService.updateTasksStatus(new BulkStatusUpdateDTO(List.of(1L, 2L), TaskStatus.DONE), currentUser))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("You can only update your own assigned tasks");
+        verify(taskRepository, never()).updateStatus(anyCollection(), any(), any());
+    }
+
+    @Test
+    void deleteTasks_missingTaskIsNotFound() {
+        AuthenticatedUser currentUser = new AuthenticatedUser(USER_ID, USER_EMAIL, Role.ADMIN);
+        when(taskRepository.findAccess(anyCollection(), any())).thenReturn(Map.of(1L, true));
+
+        assertThatThrownBy(() -> taskService.deleteTasks(new BulkDeleteDTO(List.of(1L, 99L)), currentUser))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(taskRepository, never()).softDelete(anyCollection(), any());
+    }
+
     // ---------------------- UTILITY ----------------------
 
-    private UserEntity createUser(String email, Role role) {
+    private UserEntity createUser(Long id, String email, Role role) {
         return UserEntity.builder()
+                .id(id)
                 .email(email)
                 .role(role)
                 .build();
@@ -0,0 +1,128 @@
+package com.erikssonherlo.taskmanagement.user.repository;
+
+import com.erikssonherlo.taskmanagement.common.config.CacheConfiguration;
+import com.erikssonherlo.taskmanagement.common.config.JpaConfiguration;
+import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
+import com.erikssonherlo.taskmanagement.user.model.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User lookups by email are served from the cache after the first query, and registration is a single statement.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:users;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheConfiguration.class, JpaConfiguration.class})
+class UserRepositoryTest {
+
+    private static final String EMAIL = "member@example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfiguration.USERS_BY_EMAIL).clear();
+        userRepository.save(UserEntity.builder()
+                .email(EMAIL)
+                .firstName("First")
+                .lastName("Last")
+                .password("password")
+                .role(Role.MEMBER)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByEmail_isServedFromCacheAfterFirstLookup() {
+        CacheStats before = nativeCache().stats();
+        for (int i = 0; i < 5; i++) {
+            assertThat(userRepository.findByEmail(EMAIL)).isPresent();
+            entityManager.clear();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        CacheStats stats = nativeCache().stats().minus(before);
+        assertThat(stats.hitCount()).isEqualTo(4);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByEmail_doesNotCacheMissingUsers() {
+        assertThat(userRepository.findByEmail("new@example.com")).isEmpty();
+
+        assertThat(nativeCache().estimatedSize()).isZero();
+    }
+
+    @Test
+    void insertIfAbsent_insertsWithOneStatement() {
+        UserEntity user = UserEntity.builder()
+                .email("new@example.com")
+                .firstName("New")
+                .lastName("User")
+                .password("password")
+                .role(Role.MEMBER)
+                .build();
+
+        assertThat(userRepository.insertIfAbsent(user)).isEqualTo(1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(user.getId()).isNotNull();
+        assertThat(userRepository.findByEmail("new@example.com")).get()
+                .satisfies(saved -> {
+                    assertThat(saved.getId()).isEqualTo(user.getId());
+                    assertThat(saved.getRole()).isEqualTo(Role.MEMBER);
+                });
+    }
+
+    @Test
+    void insertIfAbsent_doesNothingWhenEmailIsTaken() {
+        UserEntity duplicate = UserEntity.builder()
+                .email(EMAIL)
+                .firstName("Other")
+                .lastName("User")
+                .password("other")
+                .role(Role.ADMIN)
+                .build();
+
+        assertThat(userRepository.insertIfAbsent(duplicate)).isZero();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(userRepository.findByEmail(EMAIL)).get()
+                .extracting(UserEntity::getRole).isEqualTo(Role.MEMBER);
+    }
+
+    private Cache<Object, Object> nativeCache() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfiguration.USERS_BY_EMAIL)).getNativeCache();
+    }
+}
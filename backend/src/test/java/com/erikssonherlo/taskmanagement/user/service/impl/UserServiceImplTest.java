@@ -3,6 +3,7 @@ package com.erikssonherlo.taskmanagement.user.service.impl;
 import com.erikssonherlo.taskmanagement.common.exception.BadRequestException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceAlreadyExistsException;
 import com.erikssonherlo.taskmanagement.common.exception.ResourceNotFoundException;
+import com.erikssonherlo.taskmanagement.common.security.TokenVersionRegistry;
 import com.erikssonherlo.taskmanagement.user.mapper.UserMapper;
 import com.erikssonherlo.taskmanagement.user.dto.UserDTO;
 import com.erikssonherlo.taskmanagement.user.entity.UserEntity;
@@ -34,6 +35,9 @@ class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Captor
     private ArgumentCaptor<UserEntity> userEntityCaptor;
 
@@ -232,7 +236,7 @@ class UserServiceImplTest {
         UserEntity entity = UserEntity.builder().email(EMAIL).firstName("Old").build();
         UserDTO dto = new UserDTO(EMAIL, "New", "User", Role.ADMIN);
 
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(entity));
+        when(userRepository.findUncachedByEmail(EMAIL)).thenReturn(Optional.of(entity));
         when(userRepository.save(any(UserEntity.class))).thenReturn(entity);
         when(userMapper.entityToModel(entity)).thenReturn(
                 new com.erikssonherlo.taskmanagement.user.model.User(
@@ -267,11 +271,24 @@ class UserServiceImplTest {
 
         assertThat(result.email()).isEqualTo(EMAIL);
         assertThat(entity.getFirstName()).isEqualTo("New");
+        // The role changed, so tokens issued with the old one are revoked
+        verify(tokenVersionRegistry).revoke(EMAIL);
+    }
+
+    @Test
+    void updateUser_sameRole_keepsTokens() {
+        UserEntity entity = UserEntity.builder().email(EMAIL).firstName("Old").role(Role.MEMBER).build();
+        when(userRepository.findUncachedByEmail(EMAIL)).thenReturn(Optional.of(entity));
+        when(userRepository.save(any(UserEntity.class))).thenReturn(entity);
+
+        userService.updateUser(EMAIL, new UserDTO(EMAIL, "New", "User", Role.MEMBER));
+
+        verify(tokenVersionRegistry, never()).revoke(any());
     }
 
     @Test
     void updateUser_shouldThrowNotFound_whenMissing() {
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.findUncachedByEmail(EMAIL)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> userService.updateUser(EMAIL, mock(UserDTO.class)))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
@@ -280,17 +297,18 @@ class UserServiceImplTest {
     @Test
     void deleteUser_success() {
         UserEntity entity = UserEntity.builder().email(EMAIL).build();
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(entity));
+        when(userRepository.findUncachedByEmail(EMAIL)).thenReturn(Optional.of(entity));
 
         userService.deleteUser(EMAIL);
 
         assertThat(entity.getDeletedAt()).isNotNull();
         verify(userRepository).save(entity);
+        verify(tokenVersionRegistry).revoke(EMAIL);
     }
 
     @Test
     void deleteUser_shouldThrowNotFound_whenMissing() {
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.findUncachedByEmail(EMAIL)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> userService.deleteUser(EMAIL))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
@@ -298,7 +316,7 @@ class UserServiceImplTest {
     @Test
     void deleteUser_shouldThrowAlreadyExists_whenAlreadyDeleted() {
         UserEntity entity = UserEntity.builder().email(EMAIL).deletedAt(LocalDateTime.now()).build();
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(entity));
+        when(userRepository.findUncachedByEmail(EMAIL)).thenReturn(Optional.of(entity));
         assertThatThrownBy(() -> userService.deleteUser(EMAIL))
                 .isInstanceOf(ResourceAlreadyExistsException.class);
     }
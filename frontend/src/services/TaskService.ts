@@ -40,13 +40,15 @@ export const fetchTaskById = async (id: number) => {
   return response.json();
 };
 
-// Update Task
-export const updateTask = async (id: number, taskData: any) => {
+// Update Task. `version` is the version of the task as last read; the backend rejects the update with 409 if
+// the task changed since, and the task must then be fetched again
+export const updateTask = async (id: number, taskData: any, version: number) => {
   const response = await fetch(`${BASE_URL}/api/v1/tasks/${id}`, {
     method: 'PATCH',
     headers: getAuthHeaders(),
-    body: JSON.stringify(taskData),
+    body: JSON.stringify({ ...taskData, version }),
   });
+  if (response.status === 409) throw new Error('The task was changed by someone else. Reload it and try again.');
   if (!response.ok) throw new Error('Failed to update task');
   return response.json();
 };